@@ -4,10 +4,10 @@ import org.apache.kafka.common.header.Headers;
 import org.slf4j.MDC;
 
 import java.nio.charset.StandardCharsets;
-import java.util.UUID;
 
 public class LineageContext {
 
+    public static final String LINEAGE_HEADER = "lineage";
     public static final String LINEAGE_ID_HEADER = "lineage-id";
     public static final String SOURCE_SYSTEM_HEADER = "source-system";
     public static final String SOURCE_TIMESTAMP_HEADER = "source-timestamp";
@@ -17,14 +17,27 @@ public class LineageContext {
     public static final String SOURCE_SYSTEM_MDC_KEY = "sourceSystem";
 
     public static String generateLineageId() {
-        return UUID.randomUUID().toString();
+        return LineageIdGenerator.next().toString();
     }
 
     public static void addLineageHeaders(Headers headers, String lineageId, String sourceSystem, long sourceTimestamp) {
-        headers.add(LINEAGE_ID_HEADER, lineageId.getBytes(StandardCharsets.UTF_8));
-        headers.add(SOURCE_SYSTEM_HEADER, sourceSystem.getBytes(StandardCharsets.UTF_8));
-        headers.add(SOURCE_TIMESTAMP_HEADER, String.valueOf(sourceTimestamp).getBytes(StandardCharsets.UTF_8));
-        headers.add(INGESTION_TIMESTAMP_HEADER, String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+        headers.add(LINEAGE_HEADER, LineageHeader.encode(lineageId, sourceSystem, sourceTimestamp, System.currentTimeMillis()));
+    }
+
+    public static byte[] getLineageHeader(Headers headers) {
+        var header = headers.lastHeader(LINEAGE_HEADER);
+        if (header != null && LineageHeader.isSupported(header.value())) {
+            return header.value();
+        }
+
+        var lineageId = getHeaderValue(headers, LINEAGE_ID_HEADER);
+        var sourceSystem = getHeaderValue(headers, SOURCE_SYSTEM_HEADER);
+        var sourceTimestamp = getHeaderValue(headers, SOURCE_TIMESTAMP_HEADER);
+        var ingestionTimestamp = getHeaderValue(headers, INGESTION_TIMESTAMP_HEADER);
+        if (lineageId == null || sourceSystem == null || sourceTimestamp == null || ingestionTimestamp == null) {
+            return null;
+        }
+        return LineageHeader.encode(lineageId, sourceSystem, Long.parseLong(sourceTimestamp), Long.parseLong(ingestionTimestamp));
     }
 
     public static String getHeaderValue(Headers headers, String key) {
@@ -50,19 +63,9 @@ public class LineageContext {
     }
 
     public static void propagateLineageHeaders(Headers sourceHeaders, Headers targetHeaders) {
-        var lineageId = getHeaderValue(sourceHeaders, LINEAGE_ID_HEADER);
-        var sourceSystem = getHeaderValue(sourceHeaders, SOURCE_SYSTEM_HEADER);
-        var sourceTimestamp = getHeaderValue(sourceHeaders, SOURCE_TIMESTAMP_HEADER);
-
-        if (lineageId != null) {
-            targetHeaders.add(LINEAGE_ID_HEADER, lineageId.getBytes(StandardCharsets.UTF_8));
-        }
-        if (sourceSystem != null) {
-            targetHeaders.add(SOURCE_SYSTEM_HEADER, sourceSystem.getBytes(StandardCharsets.UTF_8));
-        }
-        if (sourceTimestamp != null) {
-            targetHeaders.add(SOURCE_TIMESTAMP_HEADER, sourceTimestamp.getBytes(StandardCharsets.UTF_8));
+        var lineage = getLineageHeader(sourceHeaders);
+        if (lineage != null) {
+            targetHeaders.add(LINEAGE_HEADER, LineageHeader.appendHop(lineage, System.currentTimeMillis()));
         }
-        targetHeaders.add(INGESTION_TIMESTAMP_HEADER, String.valueOf(System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
     }
 }
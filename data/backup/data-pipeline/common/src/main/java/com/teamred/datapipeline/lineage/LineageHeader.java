@@ -0,0 +1,152 @@
+package com.teamred.datapipeline.lineage;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+public final class LineageHeader {
+
+    public static final byte VERSION = 1;
+    public static final int MAX_HOPS = 255;
+
+    private static final byte UUID_ID = 0;
+    private static final byte UTF8_ID = 1;
+
+    private static final int VERSION_OFFSET = 0;
+    private static final int ID_KIND_OFFSET = 1;
+    private static final int ID_OFFSET = 2;
+
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle SHORT = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final String[] KNOWN_SOURCES = {"DB", "FILE", "SOAP"};
+    private static final byte[][] KNOWN_SOURCE_BYTES = {
+            "DB".getBytes(StandardCharsets.UTF_8),
+            "FILE".getBytes(StandardCharsets.UTF_8),
+            "SOAP".getBytes(StandardCharsets.UTF_8)
+    };
+
+    private LineageHeader() {
+    }
+
+    public static byte[] encode(String lineageId, String sourceSystem, long sourceTimestamp, long ingestionTimestamp) {
+        UUID uuid = parseUuid(lineageId);
+        byte[] id = uuid == null ? lineageId.getBytes(StandardCharsets.UTF_8) : null;
+        byte[] source = sourceSystem.getBytes(StandardCharsets.UTF_8);
+        if (id != null && id.length > 0xffff || source.length > 0xff) {
+            throw new IllegalArgumentException("Lineage id or source system too long for lineage header");
+        }
+
+        int idLength = uuid != null ? 16 : 2 + id.length;
+        byte[] bytes = new byte[ID_OFFSET + idLength + 1 + source.length + 8 + 1 + 8];
+        bytes[VERSION_OFFSET] = VERSION;
+
+        int offset = ID_OFFSET;
+        if (uuid != null) {
+            bytes[ID_KIND_OFFSET] = UUID_ID;
+            LONG.set(bytes, offset, uuid.getMostSignificantBits());
+            LONG.set(bytes, offset + 8, uuid.getLeastSignificantBits());
+        } else {
+            bytes[ID_KIND_OFFSET] = UTF8_ID;
+            SHORT.set(bytes, offset, (short) id.length);
+            System.arraycopy(id, 0, bytes, offset + 2, id.length);
+        }
+        offset += idLength;
+
+        bytes[offset++] = (byte) source.length;
+        System.arraycopy(source, 0, bytes, offset, source.length);
+        offset += source.length;
+
+        LONG.set(bytes, offset, sourceTimestamp);
+        offset += 8;
+        bytes[offset++] = 1;
+        LONG.set(bytes, offset, ingestionTimestamp);
+        return bytes;
+    }
+
+    public static byte[] appendHop(byte[] header, long timestamp) {
+        int hopsOffset = hopsOffset(header);
+        int hops = hopCount(header);
+        if (hops == MAX_HOPS) {
+            byte[] copy = header.clone();
+            LONG.set(copy, copy.length - 8, timestamp);
+            return copy;
+        }
+
+        byte[] extended = Arrays.copyOf(header, header.length + 8);
+        extended[hopsOffset] = (byte) (hops + 1);
+        LONG.set(extended, header.length, timestamp);
+        return extended;
+    }
+
+    public static boolean isSupported(byte[] header) {
+        return header != null && header.length > ID_OFFSET && header[VERSION_OFFSET] == VERSION;
+    }
+
+    public static String lineageId(byte[] header) {
+        if (header[ID_KIND_OFFSET] == UUID_ID) {
+            return new UUID((long) LONG.get(header, ID_OFFSET), (long) LONG.get(header, ID_OFFSET + 8)).toString();
+        }
+        int length = Short.toUnsignedInt((short) SHORT.get(header, ID_OFFSET));
+        return new String(header, ID_OFFSET + 2, length, StandardCharsets.UTF_8);
+    }
+
+    public static String sourceSystem(byte[] header) {
+        int offset = sourceOffset(header);
+        int length = Byte.toUnsignedInt(header[offset]);
+        for (int i = 0; i < KNOWN_SOURCE_BYTES.length; i++) {
+            byte[] known = KNOWN_SOURCE_BYTES[i];
+            if (Arrays.equals(header, offset + 1, offset + 1 + length, known, 0, known.length)) {
+                return KNOWN_SOURCES[i];
+            }
+        }
+        return new String(header, offset + 1, length, StandardCharsets.UTF_8);
+    }
+
+    public static long sourceTimestamp(byte[] header) {
+        return (long) LONG.get(header, hopsOffset(header) - 8);
+    }
+
+    public static int hopCount(byte[] header) {
+        return Byte.toUnsignedInt(header[hopsOffset(header)]);
+    }
+
+    public static long hopTimestamp(byte[] header, int hop) {
+        return (long) LONG.get(header, hopsOffset(header) + 1 + hop * 8);
+    }
+
+    public static long ingestionTimestamp(byte[] header) {
+        return hopTimestamp(header, 0);
+    }
+
+    public static long latestHopTimestamp(byte[] header) {
+        return (long) LONG.get(header, header.length - 8);
+    }
+
+    private static int sourceOffset(byte[] header) {
+        if (header[ID_KIND_OFFSET] == UUID_ID) {
+            return ID_OFFSET + 16;
+        }
+        return ID_OFFSET + 2 + Short.toUnsignedInt((short) SHORT.get(header, ID_OFFSET));
+    }
+
+    private static int hopsOffset(byte[] header) {
+        int sourceOffset = sourceOffset(header);
+        return sourceOffset + 1 + Byte.toUnsignedInt(header[sourceOffset]) + 8;
+    }
+
+    private static UUID parseUuid(String lineageId) {
+        if (lineageId.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(lineageId);
+            return uuid.toString().equals(lineageId) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.teamred.datapipeline.lineage;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+public final class LineageIdGenerator {
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int MAX_SEQUENCE = (1 << SEQUENCE_BITS) - 1;
+    private static final int SEQUENCE_SEED_BOUND = 1 << (SEQUENCE_BITS - 1);
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private static final class State {
+        private long lastMillis = -1;
+        private int sequence;
+    }
+
+    private LineageIdGenerator() {
+    }
+
+    public static UUID next() {
+        long nowMillis = System.currentTimeMillis();
+        State state = STATE.get();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        if (nowMillis > state.lastMillis) {
+            state.lastMillis = nowMillis;
+            state.sequence = random.nextInt(SEQUENCE_SEED_BOUND);
+        } else if (state.sequence < MAX_SEQUENCE) {
+            state.sequence++;
+        } else {
+            state.lastMillis++;
+            state.sequence = random.nextInt(SEQUENCE_SEED_BOUND);
+        }
+
+        long mostSigBits = (state.lastMillis << 16) | 0x7000L | state.sequence;
+        long leastSigBits = (random.nextLong() & 0x3fffffffffffffffL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
@@ -27,6 +27,9 @@ CREATE TABLE IF NOT EXISTS top_salesman_country (
     total_sales DECIMAL(15, 2) NOT NULL,
     transaction_count INTEGER NOT NULL,
     cities_covered INTEGER NOT NULL,
+    distinct_customers INTEGER,
+    cities_hll BYTEA,
+    customers_hll BYTEA,
     rank INTEGER,
     created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
     PRIMARY KEY (salesman_id, window_start)
@@ -76,6 +79,75 @@ SELECT add_continuous_aggregate_policy('hourly_city_sales_summary',
     schedule_interval => INTERVAL '1 hour',
     if_not_exists => TRUE);
 
+CREATE OR REPLACE FUNCTION hll_fold(sketch BYTEA, target_precision INTEGER)
+RETURNS BYTEA
+LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE AS $$
+    SELECT decode(lpad(to_hex(target_precision), 2, '0')
+                  || string_agg(lpad(to_hex(rank), 2, '0'), '' ORDER BY register), 'hex')
+    FROM (
+        SELECT i >> shift AS register,
+               max(CASE
+                   WHEN get_byte(sketch, i + 1) = 0 THEN 0
+                   WHEN i & ((1 << shift) - 1) = 0 THEN get_byte(sketch, i + 1) + shift
+                   ELSE shift + 1 - length(ltrim((i & ((1 << shift) - 1))::bit(16)::text, '0'))
+               END) AS rank
+        FROM (SELECT get_byte(sketch, 0) - target_precision AS shift) AS s,
+             generate_series(0, length(sketch) - 2) AS i
+        GROUP BY register
+    ) AS folded
+$$;
+
+CREATE OR REPLACE FUNCTION hll_merge(left_sketch BYTEA, right_sketch BYTEA)
+RETURNS BYTEA
+LANGUAGE plpgsql IMMUTABLE STRICT PARALLEL SAFE AS $$
+DECLARE
+    merged_precision INTEGER := least(get_byte(left_sketch, 0), get_byte(right_sketch, 0));
+BEGIN
+    IF length(left_sketch) <> 1 + (1 << get_byte(left_sketch, 0))
+       OR length(right_sketch) <> 1 + (1 << get_byte(right_sketch, 0)) THEN
+        RAISE EXCEPTION 'hll_merge: malformed sketch (length % or % does not match its precision byte)',
+            length(left_sketch), length(right_sketch);
+    END IF;
+    IF get_byte(left_sketch, 0) > merged_precision THEN
+        left_sketch := hll_fold(left_sketch, merged_precision);
+    END IF;
+    IF get_byte(right_sketch, 0) > merged_precision THEN
+        right_sketch := hll_fold(right_sketch, merged_precision);
+    END IF;
+
+    RETURN (
+        SELECT decode(string_agg(lpad(to_hex(greatest(get_byte(left_sketch, i), get_byte(right_sketch, i))), 2, '0'), '' ORDER BY i), 'hex')
+        FROM generate_series(0, length(left_sketch) - 1) AS i
+    );
+END;
+$$;
+
+CREATE OR REPLACE AGGREGATE hll_union(BYTEA) (
+    SFUNC = hll_merge,
+    STYPE = BYTEA,
+    COMBINEFUNC = hll_merge,
+    PARALLEL = SAFE
+);
+
+CREATE OR REPLACE FUNCTION hll_cardinality(sketch BYTEA)
+RETURNS BIGINT
+LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE AS $$
+    SELECT round(CASE
+        WHEN raw <= 2.5 * m AND zeros > 0 THEN m * ln(m::NUMERIC / zeros)
+        ELSE raw
+    END)::BIGINT
+    FROM (
+        SELECT m, zeros,
+               CASE m WHEN 16 THEN 0.673 WHEN 32 THEN 0.697 WHEN 64 THEN 0.709 ELSE 0.7213 / (1 + 1.079 / m) END * m * m / harmonic AS raw
+        FROM (
+            SELECT count(*) AS m,
+                   sum(power(2.0, -get_byte(sketch, i))) AS harmonic,
+                   count(*) FILTER (WHERE get_byte(sketch, i) = 0) AS zeros
+            FROM generate_series(1, length(sketch) - 1) AS i
+        ) AS registers
+    ) AS estimate
+$$;
+
 CREATE MATERIALIZED VIEW IF NOT EXISTS daily_salesman_performance
 WITH (timescaledb.continuous) AS
 SELECT
@@ -85,7 +157,9 @@ SELECT
     SUM(total_sales) AS total_sales,
     SUM(transaction_count) AS total_transactions,
     AVG(total_sales) AS avg_sales_per_window,
-    MAX(cities_covered) AS max_cities_covered
+    MAX(cities_covered) AS max_cities_covered,
+    hll_union(cities_hll) AS cities_hll,
+    hll_union(customers_hll) AS customers_hll
 FROM top_salesman_country
 GROUP BY bucket, salesman_id, salesman_name
 WITH NO DATA;
@@ -0,0 +1,50 @@
+#!/bin/bash
+
+set -e
+
+cd "$(dirname "$0")/.."
+
+source ./scripts/container-runtime.sh
+
+COUNT=${1:-1000000}
+THREADS=${2:-$(nproc)}
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+if [ ! -d common/target/classes ]; then
+    echo "Compiling common module..."
+    mvn -q -pl common -am compile
+fi
+
+echo "Lineage id generation ($COUNT ids per thread)"
+echo "========================================"
+java -cp common/target/classes scripts/benchmark/LineageIdBenchmark.java "$COUNT" "$THREADS" "$WORK_DIR"
+echo ""
+
+echo "Index insert rate into a data_lineage-shaped table ($COUNT rows)"
+echo "========================================"
+for ids in random-v4 time-ordered; do
+    $RUNTIME cp "$WORK_DIR/$ids.csv" "timescaledb:/tmp/$ids.csv"
+    echo "$ids:"
+    $RUNTIME exec -i timescaledb psql -U analyticsuser -d analyticsdb -q <<SQL
+DROP TABLE IF EXISTS lineage_id_benchmark;
+CREATE TABLE lineage_id_benchmark (
+    lineage_id VARCHAR(100) NOT NULL,
+    source_timestamp TIMESTAMPTZ NOT NULL,
+    created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (lineage_id, source_timestamp)
+);
+SELECT create_hypertable('lineage_id_benchmark', 'source_timestamp') \gset
+CREATE INDEX idx_lineage_benchmark_id ON lineage_id_benchmark(lineage_id);
+CREATE TEMP TABLE staged_lineage_ids (lineage_id VARCHAR(100));
+COPY staged_lineage_ids FROM '/tmp/$ids.csv';
+\timing on
+INSERT INTO lineage_id_benchmark (lineage_id, source_timestamp)
+SELECT lineage_id, now() + row_number() OVER () * INTERVAL '1 millisecond' FROM staged_lineage_ids;
+\timing off
+SELECT pg_size_pretty(hypertable_index_size('lineage_id_benchmark_pkey')) AS pkey_size,
+       pg_size_pretty(hypertable_index_size('idx_lineage_benchmark_id')) AS lineage_id_index_size;
+DROP TABLE lineage_id_benchmark;
+SQL
+    $RUNTIME exec timescaledb rm -f "/tmp/$ids.csv"
+done
@@ -0,0 +1,85 @@
+import com.teamred.datapipeline.lineage.LineageIdGenerator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+public class LineageIdBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Path outputDir = args.length > 2 ? Path.of(args[2]) : null;
+
+        Supplier<String> random = () -> UUID.randomUUID().toString();
+        Supplier<String> timeOrdered = () -> LineageIdGenerator.next().toString();
+
+        for (int round = 0; round < 3; round++) {
+            generate(random, count, 1);
+            generate(timeOrdered, count, 1);
+        }
+
+        System.out.printf("%-14s %8s %14s %14s%n", "generator", "threads", "ns/id", "ids/s");
+        report("random-v4", random, count, 1);
+        report("time-ordered", timeOrdered, count, 1);
+        report("random-v4", random, count, threads);
+        report("time-ordered", timeOrdered, count, threads);
+
+        if (outputDir != null) {
+            Files.createDirectories(outputDir);
+            write(outputDir.resolve("random-v4.csv"), random, count);
+            write(outputDir.resolve("time-ordered.csv"), timeOrdered, count);
+        }
+    }
+
+    private static void report(String name, Supplier<String> generator, int count, int threads) throws Exception {
+        long elapsed = generate(generator, count, threads);
+        long total = (long) count * threads;
+        System.out.printf("%-14s %8d %14.1f %14.0f%n", name, threads, (double) elapsed * threads / total, total * 1e9 / elapsed);
+    }
+
+    private static long generate(Supplier<String> generator, int count, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<>(threads);
+            long started = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    int sink = 0;
+                    for (int i = 0; i < count; i++) {
+                        sink += generator.get().hashCode();
+                    }
+                    return sink;
+                }));
+            }
+            int sink = 0;
+            for (Future<Integer> result : results) {
+                sink += result.get();
+            }
+            long elapsed = System.nanoTime() - started;
+            if (sink == 42) {
+                System.out.print("");
+            }
+            return elapsed;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void write(Path file, Supplier<String> generator, int count) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int i = 0; i < count; i++) {
+                writer.write(generator.get());
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -41,8 +41,7 @@ check_container "kafka"
 check_container "postgres-source"
 check_container "timescaledb"
 check_container "db-ingestion-service"
-check_container "stream-processor-city"
-check_container "stream-processor-salesman"
+check_container "stream-processor"
 check_container "query-api"
 
 echo ""
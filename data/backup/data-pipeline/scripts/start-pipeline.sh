@@ -31,24 +31,18 @@ echo "Waiting for services to be ready..."
 echo "Creating Kafka topics..."
 ./scripts/create-topics.sh
 
-echo "Restarting stream processors to ensure topic metadata is current..."
+echo "Restarting stream processor to ensure topic metadata is current..."
 sleep 2
-$RUNTIME restart stream-processor-city stream-processor-salesman
+$RUNTIME restart stream-processor
 
-echo "Waiting for stream processors to stabilize..."
+echo "Waiting for stream processor to stabilize..."
 sleep 10
 
 echo "Checking stream processor status..."
-if $RUNTIME ps --filter "name=stream-processor-city" --format "{{.Names}}" | grep -q stream-processor-city; then
-    echo "  stream-processor-city: Running"
+if $RUNTIME ps --filter "name=stream-processor" --format "{{.Names}}" | grep -q stream-processor; then
+    echo "  stream-processor: Running"
 else
-    echo "  stream-processor-city: NOT Running"
-fi
-
-if $RUNTIME ps --filter "name=stream-processor-salesman" --format "{{.Names}}" | grep -q stream-processor-salesman; then
-    echo "  stream-processor-salesman: Running"
-else
-    echo "  stream-processor-salesman: NOT Running"
+    echo "  stream-processor: NOT Running"
 fi
 
 echo ""
@@ -1,6 +1,5 @@
 package com.teamred.datapipeline.dbingestion;
 
-import com.teamred.datapipeline.lineage.LineageContext;
 import com.teamred.datapipeline.model.SalesEventDto;
 import com.teamred.datapipeline.observability.MetricsRegistry;
 import com.teamred.datapipeline.serdes.JsonSerializer;
@@ -12,10 +11,7 @@ import io.debezium.engine.format.ChangeEventFormat;
 import io.micrometer.core.instrument.Counter;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
-import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.apache.kafka.common.serialization.StringSerializer;
-import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.source.SourceRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,6 +19,7 @@ import org.slf4j.LoggerFactory;
 import java.util.Properties;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class DbIngestionApplication {
 
@@ -39,6 +36,11 @@ public class DbIngestionApplication {
         String dbUser = System.getenv().getOrDefault("DATABASE_USER", "sourceuser");
         String dbPassword = System.getenv().getOrDefault("DATABASE_PASSWORD", "sourcepass");
         String dbName = System.getenv().getOrDefault("DATABASE_DBNAME", "sourcedb");
+        String maxBatchSize = System.getenv().getOrDefault("DEBEZIUM_MAX_BATCH_SIZE", "2048");
+        String maxQueueSize = System.getenv().getOrDefault("DEBEZIUM_MAX_QUEUE_SIZE", "8192");
+        String pollIntervalMs = System.getenv().getOrDefault("DEBEZIUM_POLL_INTERVAL_MS", "100");
+        int maxSendAttempts = Integer.parseInt(System.getenv().getOrDefault("DEBEZIUM_SEND_ATTEMPTS", "5"));
+        long sendRetryBackoffMs = Long.parseLong(System.getenv().getOrDefault("DEBEZIUM_SEND_RETRY_BACKOFF_MS", "1000"));
 
         Properties kafkaProps = new Properties();
         kafkaProps.setProperty(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
@@ -46,6 +48,8 @@ public class DbIngestionApplication {
         kafkaProps.setProperty(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class.getName());
         kafkaProps.setProperty(ProducerConfig.ACKS_CONFIG, "all");
         kafkaProps.setProperty(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, "true");
+        kafkaProps.setProperty(ProducerConfig.LINGER_MS_CONFIG, "5");
+        kafkaProps.setProperty(ProducerConfig.BATCH_SIZE_CONFIG, String.valueOf(64 * 1024));
 
         KafkaProducer<String, SalesEventDto> producer = new KafkaProducer<>(kafkaProps);
 
@@ -55,6 +59,9 @@ public class DbIngestionApplication {
                 .with("offset.storage", "org.apache.kafka.connect.storage.FileOffsetBackingStore")
                 .with("offset.storage.file.filename", "/tmp/offsets.dat")
                 .with("offset.flush.interval.ms", "1000")
+                .with("max.batch.size", maxBatchSize)
+                .with("max.queue.size", maxQueueSize)
+                .with("poll.interval.ms", pollIntervalMs)
                 .with("database.hostname", dbHost)
                 .with("database.port", dbPort)
                 .with("database.user", dbUser)
@@ -68,9 +75,16 @@ public class DbIngestionApplication {
                 .with("topic.prefix", "sourcedb")
                 .build();
 
+        AtomicBoolean engineFailed = new AtomicBoolean(false);
         try (DebeziumEngine<RecordChangeEvent<SourceRecord>> engine = DebeziumEngine.create(ChangeEventFormat.of(Connect.class))
                 .using(config.asProperties())
-                .notifying(record -> processRecord(record, producer))
+                .using((success, message, error) -> {
+                    if (!success) {
+                        engineFailed.set(true);
+                        logger.error("DB Connector engine stopped: {}", message, error);
+                    }
+                })
+                .notifying(new KafkaChangeConsumer(producer, TOPIC, recordsProcessed, maxSendAttempts, sendRetryBackoffMs))
                 .build()) {
 
             ExecutorService executor = Executors.newSingleThreadExecutor();
@@ -94,58 +108,12 @@ public class DbIngestionApplication {
             }
         } catch (Exception e) {
             logger.error("Error running DB Connector", e);
+            engineFailed.set(true);
         }
-    }
-
-    private static void processRecord(RecordChangeEvent<SourceRecord> record, KafkaProducer<String, SalesEventDto> producer) {
-        SourceRecord sourceRecord = record.record();
-        if (sourceRecord.value() == null) {
-            return;
-        }
-
-        try {
-            Struct value = (Struct) sourceRecord.value();
-            Struct after = value.getStruct("after");
-
-            if (after != null) {
-                SalesEventDto event = new SalesEventDto();
-                event.setSaleId(after.getString("sale_id"));
-                event.setTimestamp(after.getInt64("timestamp"));
-                event.setSalesmanId(after.getString("salesman_id"));
-                event.setSalesmanName(after.getString("salesman_name"));
-                event.setCustomerId(after.getString("customer_id"));
-                event.setProductId(after.getString("product_id"));
-                event.setProductName(after.getString("product_name"));
-                event.setQuantity(after.getInt32("quantity"));
-                Object unitPrice = after.get("unit_price");
-                event.setUnitPrice(unitPrice instanceof Number ? ((Number) unitPrice).doubleValue() : 0.0);
-                Object totalAmount = after.get("total_amount");
-                event.setTotalAmount(totalAmount instanceof Number ? ((Number) totalAmount).doubleValue() : 0.0);
-                event.setCity(after.getString("city"));
-                event.setCountry(after.getString("country"));
-                event.setSourceSystem("DB");
-                event.setIngestionTimestamp(System.currentTimeMillis());
 
-                String lineageId = LineageContext.generateLineageId();
-                event.setLineageId(lineageId);
-
-                RecordHeaders headers = new RecordHeaders();
-                LineageContext.addLineageHeaders(headers, lineageId, "DB", event.getTimestamp());
-
-                ProducerRecord<String, SalesEventDto> producerRecord = new ProducerRecord<>(
-                        TOPIC,
-                        null,
-                        event.getSaleId(),
-                        event,
-                        headers
-                );
-
-                producer.send(producerRecord);
-                recordsProcessed.increment();
-                logger.info("Sent sale event: {}", event.getSaleId());
-            }
-        } catch (Exception e) {
-            logger.error("Error processing record", e);
+        if (engineFailed.get()) {
+            producer.close();
+            System.exit(1);
         }
     }
 }
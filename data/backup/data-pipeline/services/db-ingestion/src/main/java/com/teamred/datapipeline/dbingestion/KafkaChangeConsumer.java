@@ -0,0 +1,147 @@
+package com.teamred.datapipeline.dbingestion;
+
+import com.teamred.datapipeline.lineage.LineageContext;
+import com.teamred.datapipeline.model.SalesEventDto;
+import io.debezium.engine.DebeziumEngine;
+import io.debezium.engine.RecordChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class KafkaChangeConsumer implements DebeziumEngine.ChangeConsumer<RecordChangeEvent<SourceRecord>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaChangeConsumer.class);
+
+    private final KafkaProducer<String, SalesEventDto> producer;
+    private final String topic;
+    private final Counter recordsProcessed;
+    private final int maxSendAttempts;
+    private final long retryBackoffMs;
+
+    public KafkaChangeConsumer(KafkaProducer<String, SalesEventDto> producer, String topic, Counter recordsProcessed,
+                               int maxSendAttempts, long retryBackoffMs) {
+        this.producer = producer;
+        this.topic = topic;
+        this.recordsProcessed = recordsProcessed;
+        this.maxSendAttempts = maxSendAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+    }
+
+    @Override
+    public void handleBatch(List<RecordChangeEvent<SourceRecord>> records,
+                            DebeziumEngine.RecordCommitter<RecordChangeEvent<SourceRecord>> committer) throws InterruptedException {
+        List<ProducerRecord<String, SalesEventDto>> pending = new ArrayList<>(records.size());
+        for (RecordChangeEvent<SourceRecord> record : records) {
+            ProducerRecord<String, SalesEventDto> producerRecord = toProducerRecord(record.record());
+            if (producerRecord != null) {
+                pending.add(producerRecord);
+            }
+        }
+
+        long backoffMs = retryBackoffMs;
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            AtomicReference<Exception> failure = new AtomicReference<>();
+            pending = send(pending, failure);
+            if (pending.isEmpty()) {
+                break;
+            }
+            if (attempt >= maxSendAttempts) {
+                throw new RuntimeException("Kafka did not acknowledge " + pending.size() + " of " + records.size()
+                        + " CDC records after " + attempt + " attempts", failure.get());
+            }
+
+            logger.warn("Kafka did not acknowledge {} CDC records (attempt {}/{}), resending in {} ms",
+                    pending.size(), attempt, maxSendAttempts, backoffMs, failure.get());
+            Thread.sleep(backoffMs);
+            backoffMs *= 2;
+        }
+
+        for (RecordChangeEvent<SourceRecord> record : records) {
+            committer.markProcessed(record);
+        }
+        committer.markBatchFinished();
+        logger.debug("Acknowledged CDC batch of {} records", records.size());
+    }
+
+    private List<ProducerRecord<String, SalesEventDto>> send(List<ProducerRecord<String, SalesEventDto>> records,
+                                                            AtomicReference<Exception> failure) throws InterruptedException {
+        CountDownLatch acked = new CountDownLatch(records.size());
+        Queue<ProducerRecord<String, SalesEventDto>> failed = new ConcurrentLinkedQueue<>();
+
+        for (ProducerRecord<String, SalesEventDto> producerRecord : records) {
+            try {
+                producer.send(producerRecord, (metadata, exception) -> {
+                    if (exception != null) {
+                        failure.compareAndSet(null, exception);
+                        failed.add(producerRecord);
+                    } else {
+                        recordsProcessed.increment();
+                    }
+                    acked.countDown();
+                });
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+                failed.add(producerRecord);
+                acked.countDown();
+            }
+        }
+
+        acked.await();
+        return new ArrayList<>(failed);
+    }
+
+    private ProducerRecord<String, SalesEventDto> toProducerRecord(SourceRecord sourceRecord) {
+        if (sourceRecord.value() == null) {
+            return null;
+        }
+
+        try {
+            Struct value = (Struct) sourceRecord.value();
+            Struct after = value.getStruct("after");
+            if (after == null) {
+                return null;
+            }
+
+            SalesEventDto event = new SalesEventDto();
+            event.setSaleId(after.getString("sale_id"));
+            event.setTimestamp(after.getInt64("timestamp"));
+            event.setSalesmanId(after.getString("salesman_id"));
+            event.setSalesmanName(after.getString("salesman_name"));
+            event.setCustomerId(after.getString("customer_id"));
+            event.setProductId(after.getString("product_id"));
+            event.setProductName(after.getString("product_name"));
+            event.setQuantity(after.getInt32("quantity"));
+            Object unitPrice = after.get("unit_price");
+            event.setUnitPrice(unitPrice instanceof Number ? ((Number) unitPrice).doubleValue() : 0.0);
+            Object totalAmount = after.get("total_amount");
+            event.setTotalAmount(totalAmount instanceof Number ? ((Number) totalAmount).doubleValue() : 0.0);
+            event.setCity(after.getString("city"));
+            event.setCountry(after.getString("country"));
+            event.setSourceSystem("DB");
+            event.setIngestionTimestamp(System.currentTimeMillis());
+
+            String lineageId = LineageContext.generateLineageId();
+            event.setLineageId(lineageId);
+
+            RecordHeaders headers = new RecordHeaders();
+            LineageContext.addLineageHeaders(headers, lineageId, "DB", event.getTimestamp());
+
+            return new ProducerRecord<>(topic, null, event.getSaleId(), event, headers);
+        } catch (Exception e) {
+            logger.error("Error processing record", e);
+            return null;
+        }
+    }
+}
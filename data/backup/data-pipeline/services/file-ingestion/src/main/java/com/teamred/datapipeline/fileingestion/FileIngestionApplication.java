@@ -1,8 +1,9 @@
 package com.teamred.datapipeline.fileingestion;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.opencsv.CSVReader;
 import com.teamred.datapipeline.lineage.LineageContext;
 import com.teamred.datapipeline.model.SalesEventDto;
 import com.teamred.datapipeline.observability.MetricsRegistry;
@@ -16,10 +17,16 @@ import org.apache.kafka.common.serialization.StringSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.FileReader;
 import java.io.IOException;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 public class FileIngestionApplication {
 
@@ -27,6 +34,7 @@ public class FileIngestionApplication {
     private static final String TOPIC = "sales.raw.file";
     private static Counter recordsProcessed;
     private static final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private static final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
 
     public static void main(String[] args) throws Exception {
         recordsProcessed = MetricsRegistry.counter("file_ingestion_records_processed");
@@ -34,6 +42,8 @@ public class FileIngestionApplication {
         String kafkaBootstrapServers = System.getenv().getOrDefault("KAFKA_BOOTSTRAP_SERVERS", "localhost:9092");
         String watchDirectory = System.getenv().getOrDefault("WATCH_DIRECTORY", "./data/input");
         String archiveDirectory = System.getenv().getOrDefault("ARCHIVE_DIRECTORY", "./data/archive");
+        int workers = Integer.parseInt(System.getenv().getOrDefault("FILE_INGESTION_WORKERS", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        long stableCheckMs = Long.parseLong(System.getenv().getOrDefault("FILE_STABLE_CHECK_MS", "200"));
 
         Properties kafkaProps = new Properties();
         kafkaProps.setProperty(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
@@ -43,6 +53,7 @@ public class FileIngestionApplication {
         kafkaProps.setProperty(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, "true");
 
         KafkaProducer<String, SalesEventDto> producer = new KafkaProducer<>(kafkaProps);
+        ExecutorService fileWorkers = Executors.newFixedThreadPool(workers);
 
         Path watchPath = Paths.get(watchDirectory);
         Path archivePath = Paths.get(archiveDirectory);
@@ -52,13 +63,25 @@ public class FileIngestionApplication {
         WatchService watchService = FileSystems.getDefault().newWatchService();
         watchPath.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
 
-        logger.info("File Ingestion Service started, watching: {}", watchDirectory);
+        logger.info("File Ingestion Service started with {} workers, watching: {}", workers, watchDirectory);
 
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             logger.info("Shutting down File Ingestion Service");
+            fileWorkers.shutdown();
+            try {
+                fileWorkers.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
             producer.close();
         }));
 
+        try (Stream<Path> existing = Files.list(watchPath)) {
+            existing.filter(Files::isRegularFile)
+                    .sorted()
+                    .forEach(path -> submit(path, fileWorkers, stableCheckMs, producer, archivePath));
+        }
+
         while (true) {
             WatchKey key = watchService.take();
             for (WatchEvent<?> event : key.pollEvents()) {
@@ -73,8 +96,7 @@ public class FileIngestionApplication {
                 Path fullPath = watchPath.resolve(filename);
 
                 if (Files.isRegularFile(fullPath)) {
-                    Thread.sleep(100);
-                    processFile(fullPath, producer, archivePath);
+                    submit(fullPath, fileWorkers, stableCheckMs, producer, archivePath);
                 }
             }
 
@@ -85,6 +107,45 @@ public class FileIngestionApplication {
         }
     }
 
+    private static void submit(Path filePath, ExecutorService fileWorkers, long stableCheckMs,
+                               KafkaProducer<String, SalesEventDto> producer, Path archivePath) {
+        if (!inFlight.add(filePath)) {
+            return;
+        }
+
+        fileWorkers.execute(() -> {
+            try {
+                if (awaitStableSize(filePath, stableCheckMs)) {
+                    processFile(filePath, producer, archivePath);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.remove(filePath);
+            }
+        });
+    }
+
+    private static boolean awaitStableSize(Path filePath, long stableCheckMs) throws InterruptedException {
+        long previousSize = -1;
+        while (true) {
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+            } catch (IOException e) {
+                return false;
+            }
+
+            long size = attributes.size();
+            long quietFor = System.currentTimeMillis() - attributes.lastModifiedTime().toMillis();
+            if (size == previousSize || quietFor >= stableCheckMs) {
+                return true;
+            }
+            previousSize = size;
+            Thread.sleep(stableCheckMs);
+        }
+    }
+
     private static void processFile(Path filePath, KafkaProducer<String, SalesEventDto> producer, Path archivePath) {
         logger.info("Processing file: {}", filePath);
 
@@ -109,15 +170,14 @@ public class FileIngestionApplication {
     }
 
     private static void processCsvFile(Path filePath, KafkaProducer<String, SalesEventDto> producer) throws Exception {
-        try (CSVReader reader = new CSVReader(new FileReader(filePath.toFile()))) {
-            String[] header = reader.readNext();
-            String[] line;
-
-            while ((line = reader.readNext()) != null) {
-                SalesEventDto event = parseCsvLine(header, line);
-                sendEvent(event, producer);
+        String[][] header = new String[1][];
+        MappedCsvReader.read(filePath, line -> {
+            if (header[0] == null) {
+                header[0] = line;
+                return;
             }
-        }
+            sendEvent(parseCsvLine(header[0], line), producer);
+        });
     }
 
     private static SalesEventDto parseCsvLine(String[] header, String[] line) {
@@ -150,15 +210,29 @@ public class FileIngestionApplication {
     }
 
     private static void processJsonFile(Path filePath, KafkaProducer<String, SalesEventDto> producer) throws IOException {
-        SalesEventDto[] events = objectMapper.readValue(filePath.toFile(), SalesEventDto[].class);
-        for (SalesEventDto event : events) {
-            event.setSourceSystem("FILE");
-            event.setIngestionTimestamp(System.currentTimeMillis());
-            event.setLineageId(LineageContext.generateLineageId());
-            sendEvent(event, producer);
+        try (JsonParser parser = objectMapper.getFactory().createParser(filePath.toFile())) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                sendJsonEvent(objectMapper.readValue(parser, SalesEventDto.class), producer);
+                return;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a sales event object or array in " + filePath);
+            }
+
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                sendJsonEvent(objectMapper.readValue(parser, SalesEventDto.class), producer);
+            }
         }
     }
 
+    private static void sendJsonEvent(SalesEventDto event, KafkaProducer<String, SalesEventDto> producer) {
+        event.setSourceSystem("FILE");
+        event.setIngestionTimestamp(System.currentTimeMillis());
+        event.setLineageId(LineageContext.generateLineageId());
+        sendEvent(event, producer);
+    }
+
     private static void sendEvent(SalesEventDto event, KafkaProducer<String, SalesEventDto> producer) {
         RecordHeaders headers = new RecordHeaders();
         LineageContext.addLineageHeaders(headers, event.getLineageId(), "FILE", event.getTimestamp());
@@ -173,6 +247,6 @@ public class FileIngestionApplication {
 
         producer.send(record);
         recordsProcessed.increment();
-        logger.info("Sent sale event: {}", event.getSaleId());
+        logger.debug("Sent sale event: {}", event.getSaleId());
     }
 }
@@ -0,0 +1,99 @@
+package com.teamred.datapipeline.fileingestion;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class MappedCsvReader {
+
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private final List<String> fields = new ArrayList<>();
+    private byte[] field = new byte[256];
+    private int fieldLength;
+    private boolean inQuotes;
+    private boolean afterQuote;
+
+    public static void read(Path file, Consumer<String[]> rowConsumer) throws IOException {
+        new MappedCsvReader().parse(file, rowConsumer);
+    }
+
+    private void parse(Path file, Consumer<String[]> rowConsumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += WINDOW_SIZE) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+                while (window.hasRemaining()) {
+                    accept(window.get(), rowConsumer);
+                }
+            }
+        }
+
+        if (fieldLength > 0 || !fields.isEmpty()) {
+            endRow(rowConsumer);
+        }
+    }
+
+    private void accept(byte b, Consumer<String[]> rowConsumer) {
+        if (inQuotes) {
+            if (b == '"') {
+                inQuotes = false;
+                afterQuote = true;
+            } else {
+                append(b);
+            }
+            return;
+        }
+
+        if (afterQuote) {
+            afterQuote = false;
+            if (b == '"') {
+                append(b);
+                inQuotes = true;
+                return;
+            }
+        }
+
+        switch (b) {
+            case ',' -> endField();
+            case '\n' -> endRow(rowConsumer);
+            case '\r' -> {
+            }
+            case '"' -> {
+                if (fieldLength == 0) {
+                    inQuotes = true;
+                } else {
+                    append(b);
+                }
+            }
+            default -> append(b);
+        }
+    }
+
+    private void append(byte b) {
+        if (fieldLength == field.length) {
+            field = Arrays.copyOf(field, field.length * 2);
+        }
+        field[fieldLength++] = b;
+    }
+
+    private void endField() {
+        fields.add(new String(field, 0, fieldLength, StandardCharsets.UTF_8));
+        fieldLength = 0;
+    }
+
+    private void endRow(Consumer<String[]> rowConsumer) {
+        endField();
+        if (fields.size() > 1 || !fields.get(0).isBlank()) {
+            rowConsumer.accept(fields.toArray(new String[0]));
+        }
+        fields.clear();
+    }
+}
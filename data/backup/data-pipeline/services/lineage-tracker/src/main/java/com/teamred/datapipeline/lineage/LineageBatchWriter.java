@@ -0,0 +1,147 @@
+package com.teamred.datapipeline.lineage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.teamred.datapipeline.observability.MetricsRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LineageBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LineageBatchWriter.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO data_lineage (lineage_id, sale_id, source_system, source_timestamp, ingestion_timestamp,
+                                      kafka_topic, kafka_partition, kafka_offset, transformation_steps)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?::jsonb)
+            ON CONFLICT (lineage_id, source_timestamp) DO UPDATE SET
+                transformation_steps = data_lineage.transformation_steps || EXCLUDED.transformation_steps
+            """;
+
+    public record LineageRow(String lineageId, String saleId, String sourceSystem,
+                             long sourceTimestamp, long ingestionTimestamp,
+                             String kafkaTopic, int kafkaPartition, long kafkaOffset,
+                             Map<String, Object> transformationSteps) {
+
+        LineageRow mergedWith(LineageRow later) {
+            Map<String, Object> steps = new LinkedHashMap<>(transformationSteps);
+            steps.putAll(later.transformationSteps());
+            return new LineageRow(lineageId, saleId, sourceSystem, sourceTimestamp, ingestionTimestamp,
+                    kafkaTopic, kafkaPartition, kafkaOffset, steps);
+        }
+    }
+
+    private record RowKey(String lineageId, long sourceTimestamp) {
+    }
+
+    private final DataSource dataSource;
+    private final Timer batchDuration;
+    private final Timer writeLag;
+    private final Counter rowsWritten;
+    private final Counter rowsSkipped;
+
+    public LineageBatchWriter(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.batchDuration = MetricsRegistry.timer("lineage_batch_write_duration");
+        this.writeLag = MetricsRegistry.timer("lineage_write_lag");
+        this.rowsWritten = MetricsRegistry.counter("lineage_rows_written");
+        this.rowsSkipped = MetricsRegistry.counter("lineage_rows_skipped");
+    }
+
+    public void write(List<LineageRow> rows) throws SQLException {
+        Collection<LineageRow> coalesced = coalesce(rows);
+        long started = System.nanoTime();
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(UPSERT_SQL)) {
+                for (LineageRow row : coalesced) {
+                    stmt.setString(1, row.lineageId());
+                    stmt.setString(2, row.saleId());
+                    stmt.setString(3, row.sourceSystem());
+                    stmt.setTimestamp(4, new Timestamp(row.sourceTimestamp()));
+                    stmt.setTimestamp(5, new Timestamp(row.ingestionTimestamp()));
+                    stmt.setString(6, row.kafkaTopic());
+                    stmt.setInt(7, row.kafkaPartition());
+                    stmt.setLong(8, row.kafkaOffset());
+                    stmt.setString(9, toJson(row.transformationSteps()));
+                    stmt.addBatch();
+                }
+
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        long committedAt = System.currentTimeMillis();
+        long maxLag = 0;
+        for (LineageRow row : rows) {
+            long lag = Math.max(0, committedAt - row.ingestionTimestamp());
+            writeLag.record(Duration.ofMillis(lag));
+            maxLag = Math.max(maxLag, lag);
+        }
+        batchDuration.record(elapsed);
+        rowsWritten.increment(coalesced.size());
+
+        logger.debug("Wrote {} lineage rows ({} records) in {} ms, max lag {} ms",
+                coalesced.size(), rows.size(), elapsed.toMillis(), maxLag);
+    }
+
+    public int writeEach(List<LineageRow> rows) throws SQLException {
+        int skipped = 0;
+        for (LineageRow row : coalesce(rows)) {
+            try {
+                write(List.of(row));
+            } catch (SQLException e) {
+                if (isConnectionFailure(e)) {
+                    throw e;
+                }
+                skipped++;
+                rowsSkipped.increment();
+                logger.error("Skipping lineage {} from {}-{}@{} rejected by TimescaleDB",
+                        row.lineageId(), row.kafkaTopic(), row.kafkaPartition(), row.kafkaOffset(), e);
+            }
+        }
+        return skipped;
+    }
+
+    private static boolean isConnectionFailure(SQLException e) {
+        return e instanceof SQLTransientConnectionException
+                || (e.getSQLState() != null && e.getSQLState().startsWith("08"));
+    }
+
+    private static Collection<LineageRow> coalesce(List<LineageRow> rows) {
+        Map<RowKey, LineageRow> byKey = new LinkedHashMap<>();
+        for (LineageRow row : rows) {
+            byKey.merge(new RowKey(row.lineageId(), row.sourceTimestamp()), row, LineageRow::mergedWith);
+        }
+        return byKey.values();
+    }
+
+    private static String toJson(Map<String, Object> transformationSteps) {
+        try {
+            return objectMapper.writeValueAsString(transformationSteps);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize transformation steps", e);
+        }
+    }
+}
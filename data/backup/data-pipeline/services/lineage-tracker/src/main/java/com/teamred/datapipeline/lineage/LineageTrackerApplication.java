@@ -1,6 +1,5 @@
 package com.teamred.datapipeline.lineage;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.teamred.datapipeline.model.SalesEventDto;
 import com.teamred.datapipeline.serdes.JsonDeserializer;
 import com.zaxxer.hikari.HikariConfig;
@@ -9,20 +8,18 @@ import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.Timestamp;
 import java.time.Duration;
 import java.util.*;
 
 public class LineageTrackerApplication {
 
     private static final Logger logger = LoggerFactory.getLogger(LineageTrackerApplication.class);
-    private static final ObjectMapper objectMapper = new ObjectMapper();
 
     public static void main(String[] args) {
         String kafkaBootstrapServers = System.getenv().getOrDefault("KAFKA_BOOTSTRAP_SERVERS", "localhost:9092");
@@ -31,6 +28,9 @@ public class LineageTrackerApplication {
         String timescaleDatabase = System.getenv().getOrDefault("TIMESCALE_DATABASE", "analyticsdb");
         String timescaleUser = System.getenv().getOrDefault("TIMESCALE_USER", "analyticsuser");
         String timescalePassword = System.getenv().getOrDefault("TIMESCALE_PASSWORD", "analyticspass");
+        int maxPollRecords = Integer.parseInt(System.getenv().getOrDefault("LINEAGE_MAX_POLL_RECORDS", "1000"));
+        long retryBackoffMs = Long.parseLong(System.getenv().getOrDefault("LINEAGE_RETRY_BACKOFF_MS", "1000"));
+        int maxBatchAttempts = Integer.parseInt(System.getenv().getOrDefault("LINEAGE_MAX_BATCH_ATTEMPTS", "3"));
 
         Properties consumerProps = new Properties();
         consumerProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapServers);
@@ -38,88 +38,121 @@ public class LineageTrackerApplication {
         consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
         consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class.getName());
         consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "true");
+        consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        consumerProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
 
         HikariConfig config = new HikariConfig();
         config.setJdbcUrl(String.format("jdbc:postgresql://%s:%d/%s", timescaleHost, timescalePort, timescaleDatabase));
         config.setUsername(timescaleUser);
         config.setPassword(timescalePassword);
         config.setMaximumPoolSize(5);
+        config.addDataSourceProperty("reWriteBatchedInserts", "true");
         HikariDataSource dataSource = new HikariDataSource(config);
+        LineageBatchWriter writer = new LineageBatchWriter(dataSource);
 
         KafkaConsumer<String, SalesEventDto> consumer = new KafkaConsumer<>(consumerProps, new StringDeserializer(), new JsonDeserializer<>(SalesEventDto.class));
         consumer.subscribe(Arrays.asList("sales.raw.db", "sales.raw.file", "sales.raw.soap"));
 
         logger.info("Lineage Tracker started");
 
+        Thread pollThread = Thread.currentThread();
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             logger.info("Shutting down Lineage Tracker");
-            consumer.close();
-            dataSource.close();
+            consumer.wakeup();
+            try {
+                pollThread.join(10000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }));
 
-        while (true) {
-            ConsumerRecords<String, SalesEventDto> records = consumer.poll(Duration.ofMillis(1000));
-
-            for (ConsumerRecord<String, SalesEventDto> record : records) {
-                try {
-                    SalesEventDto event = record.value();
-
-                    String lineageId = com.teamred.datapipeline.lineage.LineageContext.getHeaderValue(record.headers(), com.teamred.datapipeline.lineage.LineageContext.LINEAGE_ID_HEADER);
-                    String sourceSystem = com.teamred.datapipeline.lineage.LineageContext.getHeaderValue(record.headers(), com.teamred.datapipeline.lineage.LineageContext.SOURCE_SYSTEM_HEADER);
-                    String sourceTimestamp = com.teamred.datapipeline.lineage.LineageContext.getHeaderValue(record.headers(), com.teamred.datapipeline.lineage.LineageContext.SOURCE_TIMESTAMP_HEADER);
-                    String ingestionTimestamp = com.teamred.datapipeline.lineage.LineageContext.getHeaderValue(record.headers(), com.teamred.datapipeline.lineage.LineageContext.INGESTION_TIMESTAMP_HEADER);
-
-                    Map<String, Object> transformationSteps = new HashMap<>();
-                    transformationSteps.put("step", "ingestion");
-                    transformationSteps.put("topic", record.topic());
-                    transformationSteps.put("partition", record.partition());
-                    transformationSteps.put("offset", record.offset());
-
-                    String transformationJson = objectMapper.writeValueAsString(transformationSteps);
-
-                    insertLineage(dataSource, lineageId, event.getSaleId(), sourceSystem,
-                            Long.parseLong(sourceTimestamp), Long.parseLong(ingestionTimestamp),
-                            record.topic(), record.partition(), record.offset(), transformationJson);
+        int failedAttempts = 0;
+        try {
+            while (true) {
+                ConsumerRecords<String, SalesEventDto> records = consumer.poll(Duration.ofMillis(1000));
+                if (records.isEmpty()) {
+                    continue;
+                }
 
-                    logger.debug("Tracked lineage for sale: {}", event.getSaleId());
+                List<LineageBatchWriter.LineageRow> rows = new ArrayList<>(records.count());
+                for (ConsumerRecord<String, SalesEventDto> record : records) {
+                    try {
+                        rows.add(toRow(record));
+                    } catch (Exception e) {
+                        logger.error("Skipping lineage for {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+                    }
+                }
 
+                try {
+                    if (!rows.isEmpty() && failedAttempts >= maxBatchAttempts) {
+                        int skipped = writer.writeEach(rows);
+                        logger.warn("Wrote lineage batch of {} records row by row after {} failed attempts, skipped {}",
+                                rows.size(), failedAttempts, skipped);
+                    } else if (!rows.isEmpty()) {
+                        writer.write(rows);
+                    }
+                    consumer.commitSync();
+                    failedAttempts = 0;
+                } catch (WakeupException e) {
+                    throw e;
                 } catch (Exception e) {
-                    logger.error("Error tracking lineage", e);
+                    failedAttempts++;
+                    logger.error("Error writing lineage batch of {} records (attempt {}), retrying in {} ms",
+                            records.count(), failedAttempts, retryBackoffMs, e);
+                    for (TopicPartition partition : records.partitions()) {
+                        consumer.seek(partition, records.records(partition).get(0).offset());
+                    }
+                    Thread.sleep(retryBackoffMs);
                 }
             }
+        } catch (WakeupException e) {
+            logger.info("Lineage Tracker poll loop stopped");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            consumer.close();
+            dataSource.close();
+        }
+    }
+
+    private static LineageBatchWriter.LineageRow toRow(ConsumerRecord<String, SalesEventDto> record) {
+        byte[] lineage = LineageContext.getLineageHeader(record.headers());
+        if (lineage == null) {
+            throw new IllegalArgumentException("Record has no lineage header");
+        }
+        if (!LineageHeader.isSupported(lineage) || LineageHeader.hopCount(lineage) == 0) {
+            throw new IllegalArgumentException("Record has an unsupported or truncated lineage header");
         }
+
+        Map<String, Object> transformationSteps = new LinkedHashMap<>();
+        transformationSteps.put("step", "ingestion");
+        transformationSteps.put("topic", record.topic());
+        transformationSteps.put("partition", record.partition());
+        transformationSteps.put("offset", record.offset());
+
+        if (record.value() == null) {
+            throw new IllegalArgumentException("Record has no sale payload");
+        }
+        String lineageId = requireText("lineage_id", LineageHeader.lineageId(lineage), 100);
+        String saleId = requireText("sale_id", record.value().getSaleId(), 100);
+        String sourceSystem = requireText("source_system", LineageHeader.sourceSystem(lineage), 20);
+        long sourceTimestamp = LineageHeader.sourceTimestamp(lineage);
+        long ingestionTimestamp = LineageHeader.ingestionTimestamp(lineage);
+        if (sourceTimestamp <= 0 || ingestionTimestamp <= 0) {
+            throw new IllegalArgumentException("Lineage header has no source or ingestion timestamp");
+        }
+
+        return new LineageBatchWriter.LineageRow(lineageId, saleId, sourceSystem, sourceTimestamp, ingestionTimestamp,
+                record.topic(), record.partition(), record.offset(), transformationSteps);
     }
 
-    private static void insertLineage(HikariDataSource dataSource, String lineageId, String saleId,
-                                       String sourceSystem, long sourceTimestamp, long ingestionTimestamp,
-                                       String kafkaTopic, int kafkaPartition, long kafkaOffset,
-                                       String transformationSteps) {
-        String sql = """
-                INSERT INTO data_lineage (lineage_id, sale_id, source_system, source_timestamp, ingestion_timestamp,
-                                           kafka_topic, kafka_partition, kafka_offset, transformation_steps)
-                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?::jsonb)
-                ON CONFLICT (lineage_id) DO UPDATE SET
-                    transformation_steps = data_lineage.transformation_steps || EXCLUDED.transformation_steps
-                """;
-
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, lineageId);
-            stmt.setString(2, saleId);
-            stmt.setString(3, sourceSystem);
-            stmt.setTimestamp(4, new Timestamp(sourceTimestamp));
-            stmt.setTimestamp(5, new Timestamp(ingestionTimestamp));
-            stmt.setString(6, kafkaTopic);
-            stmt.setInt(7, kafkaPartition);
-            stmt.setLong(8, kafkaOffset);
-            stmt.setString(9, transformationSteps);
-
-            stmt.executeUpdate();
-
-        } catch (Exception e) {
-            logger.error("Error inserting lineage", e);
+    private static String requireText(String column, String value, int maxLength) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(column + " is missing");
+        }
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(column + " exceeds " + maxLength + " characters: " + value);
         }
+        return value;
     }
 }
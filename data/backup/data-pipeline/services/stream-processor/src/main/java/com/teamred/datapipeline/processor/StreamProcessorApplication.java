@@ -1,15 +1,21 @@
 package com.teamred.datapipeline.processor;
 
+import com.teamred.datapipeline.processor.sink.SinkOptions;
 import com.teamred.datapipeline.processor.sink.TimescaleSink;
 import com.teamred.datapipeline.processor.topology.CitySalesTopology;
+import com.teamred.datapipeline.processor.topology.SalesBranch;
+import com.teamred.datapipeline.processor.topology.SalesTopology;
 import com.teamred.datapipeline.processor.topology.SalesmanTopology;
 import org.apache.kafka.common.serialization.Serdes;
 import org.apache.kafka.streams.KafkaStreams;
 import org.apache.kafka.streams.StreamsConfig;
 import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.errors.StreamsUncaughtExceptionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 public class StreamProcessorApplication {
@@ -19,7 +25,9 @@ public class StreamProcessorApplication {
     public static void main(String[] args) {
         String kafkaBootstrapServers = System.getenv().getOrDefault("KAFKA_BOOTSTRAP_SERVERS", "localhost:9092");
         String applicationId = System.getenv().getOrDefault("APPLICATION_ID", "stream-processor");
-        String topologyType = System.getenv().getOrDefault("TOPOLOGY_TYPE", "city");
+        String topologyType = System.getenv().getOrDefault("TOPOLOGY_TYPE", "all");
+        int productSketchCapacity = Integer.parseInt(System.getenv().getOrDefault("CITY_PRODUCT_SKETCH_CAPACITY", "64"));
+        int distinctSketchPrecision = Integer.parseInt(System.getenv().getOrDefault("SALESMAN_HLL_PRECISION", "11"));
 
         String timescaleHost = System.getenv().getOrDefault("TIMESCALE_HOST", "localhost");
         int timescalePort = Integer.parseInt(System.getenv().getOrDefault("TIMESCALE_PORT", "5433"));
@@ -37,19 +45,37 @@ public class StreamProcessorApplication {
         props.put(StreamsConfig.CACHE_MAX_BYTES_BUFFERING_CONFIG, 10 * 1024 * 1024L);
 
         TimescaleSink timescaleSink = new TimescaleSink(timescaleHost, timescalePort, timescaleDatabase, timescaleUser, timescalePassword);
+        SinkOptions sinkOptions = SinkOptions.fromEnv();
 
-        Topology topology;
-        if ("city".equalsIgnoreCase(topologyType)) {
-            logger.info("Starting City Sales Topology");
-            topology = new CitySalesTopology(timescaleSink).build();
-        } else if ("salesman".equalsIgnoreCase(topologyType)) {
-            logger.info("Starting Salesman Topology");
-            topology = new SalesmanTopology(timescaleSink).build();
-        } else {
-            throw new IllegalArgumentException("Unknown topology type: " + topologyType);
+        List<SalesBranch> available = List.of(
+                new CitySalesTopology(timescaleSink, sinkOptions, productSketchCapacity),
+                new SalesmanTopology(timescaleSink, sinkOptions, distinctSketchPrecision)
+        );
+
+        List<SalesBranch> branches = new ArrayList<>();
+        for (String type : topologyType.split(",")) {
+            String requested = type.trim();
+            if ("all".equalsIgnoreCase(requested)) {
+                branches.addAll(available);
+                continue;
+            }
+            SalesBranch branch = available.stream()
+                    .filter(candidate -> candidate.name().equalsIgnoreCase(requested))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown topology type: " + requested));
+            if (!branches.contains(branch)) {
+                branches.add(branch);
+            }
         }
 
+        logger.info("Starting sales topology with branches: {}", branches.stream().map(SalesBranch::name).toList());
+        Topology topology = new SalesTopology(branches).build();
+
         KafkaStreams streams = new KafkaStreams(topology, props);
+        streams.setUncaughtExceptionHandler(e -> {
+            logger.error("Stream thread failed, replacing it to replay from the last committed offsets", e);
+            return StreamsUncaughtExceptionHandler.StreamThreadExceptionResponse.REPLACE_THREAD;
+        });
 
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             logger.info("Shutting down Stream Processor");
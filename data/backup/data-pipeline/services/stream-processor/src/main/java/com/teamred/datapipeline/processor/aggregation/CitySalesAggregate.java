@@ -2,7 +2,8 @@ package com.teamred.datapipeline.processor.aggregation;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public class CitySalesAggregate {
@@ -11,10 +12,14 @@ public class CitySalesAggregate {
     private long windowEnd;
     private double totalSales;
     private int transactionCount;
-    private Map<String, Double> productSales;
+    private ProductSalesSketch productSales;
 
     public CitySalesAggregate() {
-        this.productSales = new HashMap<>();
+        this(ProductSalesSketch.DEFAULT_CAPACITY);
+    }
+
+    public CitySalesAggregate(int productCapacity) {
+        this.productSales = new ProductSalesSketch(productCapacity);
     }
 
     public String getCity() {
@@ -58,25 +63,43 @@ public class CitySalesAggregate {
     }
 
     public Map<String, Double> getProductSales() {
-        return productSales;
+        Map<String, Double> totals = new LinkedHashMap<>();
+        for (ProductSalesSketch.Entry entry : productSales.top(productSales.size())) {
+            totals.put(entry.product(), entry.sales());
+        }
+        return totals;
     }
 
     public void setProductSales(Map<String, Double> productSales) {
-        this.productSales = productSales;
+        this.productSales = ProductSalesSketch.fromTotals(this.productSales.capacity(), productSales);
+    }
+
+    @JsonIgnore
+    public ProductSalesSketch getProductSketch() {
+        return productSales;
+    }
+
+    @JsonIgnore
+    public void setProductSketch(ProductSalesSketch productSketch) {
+        this.productSales = productSketch;
+    }
+
+    public void addProductSale(String product, double amount) {
+        productSales.add(product, amount);
     }
 
     @JsonIgnore
     public String getTopProduct() {
-        return productSales.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse(null);
+        return productSales.getTopProduct();
     }
 
     @JsonIgnore
     public Double getTopProductSales() {
-        return productSales.values().stream()
-                .max(Double::compareTo)
-                .orElse(0.0);
+        return productSales.getTopProductSales();
+    }
+
+    @JsonIgnore
+    public List<ProductSalesSketch.Entry> getTopProducts(int limit) {
+        return productSales.top(limit);
     }
 }
@@ -0,0 +1,151 @@
+package com.teamred.datapipeline.processor.aggregation;
+
+import java.nio.charset.StandardCharsets;
+
+public class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 11;
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 16;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private int precision;
+    private byte[] registers;
+
+    public HyperLogLog(int precision) {
+        this(precision, new byte[1 << checkPrecision(precision)]);
+    }
+
+    private HyperLogLog(int precision, byte[] registers) {
+        this.precision = precision;
+        this.registers = registers;
+    }
+
+    public static HyperLogLog fromRegisters(int precision, byte[] registers) {
+        if (registers.length != 1 << checkPrecision(precision)) {
+            throw new IllegalArgumentException("Expected " + (1 << precision) + " registers but got " + registers.length);
+        }
+        return new HyperLogLog(precision, registers.clone());
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        byte[] registers = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 1, registers, 0, registers.length);
+        return fromRegisters(bytes[0], registers);
+    }
+
+    public void add(String value) {
+        if (value == null) {
+            return;
+        }
+
+        long hash = hash64(value);
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision < precision) {
+            HyperLogLog folded = foldTo(other.precision);
+            precision = folded.precision;
+            registers = folded.registers;
+        }
+        byte[] source = other.precision > precision ? other.foldTo(precision).registers : other.registers;
+        for (int i = 0; i < registers.length; i++) {
+            if (source[i] > registers[i]) {
+                registers[i] = source[i];
+            }
+        }
+    }
+
+    public HyperLogLog foldTo(int targetPrecision) {
+        if (checkPrecision(targetPrecision) > precision) {
+            throw new IllegalArgumentException("Cannot fold HyperLogLog precision " + precision + " up to " + targetPrecision);
+        }
+
+        int shift = precision - targetPrecision;
+        int suffixMask = (1 << shift) - 1;
+        byte[] folded = new byte[1 << targetPrecision];
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] == 0) {
+                continue;
+            }
+            int suffix = i & suffixMask;
+            int rank = suffix == 0 ? registers[i] + shift : shift - (Integer.SIZE - 1 - Integer.numberOfLeadingZeros(suffix));
+            int index = i >>> shift;
+            if (rank > folded[index]) {
+                folded[index] = (byte) rank;
+            }
+        }
+        return new HyperLogLog(targetPrecision, folded);
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double harmonic = 0.0;
+        int zeros = 0;
+        for (byte register : registers) {
+            harmonic += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double raw = alpha(m) * m * m / harmonic;
+        if (raw <= 2.5 * m && zeros > 0) {
+            return Math.round(m * Math.log((double) m / zeros));
+        }
+        return Math.round(raw);
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    public byte[] registers() {
+        return registers;
+    }
+
+    public byte[] toBytes() {
+        byte[] bytes = new byte[registers.length + 1];
+        bytes[0] = (byte) precision;
+        System.arraycopy(registers, 0, bytes, 1, registers.length);
+        return bytes;
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+
+    private static long hash64(String value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static int checkPrecision(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION + ": " + precision);
+        }
+        return precision;
+    }
+}
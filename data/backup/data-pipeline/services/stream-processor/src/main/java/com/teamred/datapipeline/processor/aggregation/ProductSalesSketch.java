@@ -0,0 +1,179 @@
+package com.teamred.datapipeline.processor.aggregation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class ProductSalesSketch {
+
+    public static final int DEFAULT_CAPACITY = 64;
+
+    public record Entry(String product, double sales, double error) {
+    }
+
+    private final int capacity;
+    private final String[] products;
+    private final double[] sales;
+    private final double[] errors;
+    private final Map<String, Integer> slots;
+    private int size;
+    private String topProduct;
+
+    public ProductSalesSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Sketch capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.products = new String[capacity];
+        this.sales = new double[capacity];
+        this.errors = new double[capacity];
+        this.slots = HashMap.newHashMap(capacity);
+    }
+
+    public static ProductSalesSketch of(int capacity, List<Entry> entries) {
+        ProductSalesSketch sketch = new ProductSalesSketch(capacity);
+        entries.stream()
+                .sorted(Comparator.comparingDouble(Entry::sales).reversed())
+                .limit(capacity)
+                .forEach(entry -> sketch.insert(entry.product(), entry.sales(), entry.error()));
+        return sketch;
+    }
+
+    public static ProductSalesSketch fromTotals(int capacity, Map<String, Double> totals) {
+        List<Entry> entries = new ArrayList<>(totals.size());
+        totals.forEach((product, total) -> entries.add(new Entry(product, total, 0.0)));
+        return of(capacity, entries);
+    }
+
+    public void add(String product, double amount) {
+        Integer slot = slots.get(product);
+        if (slot != null) {
+            sales[slot] += amount;
+            slot = reposition(slot);
+        } else if (size < capacity) {
+            slot = insert(product, amount, 0.0);
+        } else {
+            double floor = sales[0];
+            slots.remove(products[0]);
+            place(0, product, floor + amount, floor);
+            slot = reposition(0);
+        }
+
+        if (amount < 0 && Objects.equals(product, topProduct)) {
+            rescanTop();
+        } else {
+            track(slot);
+        }
+    }
+
+    public String getTopProduct() {
+        return topProduct;
+    }
+
+    public double getTopProductSales() {
+        Integer slot = slots.get(topProduct);
+        return slot == null ? 0.0 : sales[slot];
+    }
+
+    public List<Entry> top(int limit) {
+        return entries().stream()
+                .sorted(Comparator.comparingDouble(Entry::sales).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry(products[i], sales[i], errors[i]));
+        }
+        return entries;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int insert(String product, double amount, double error) {
+        int slot = size++;
+        place(slot, product, amount, error);
+        slot = reposition(slot);
+        track(slot);
+        return slot;
+    }
+
+    private void track(int slot) {
+        Integer topSlot = slots.get(topProduct);
+        if (topSlot == null || !Objects.equals(topProduct, products[slot]) && sales[slot] > sales[topSlot]) {
+            topProduct = products[slot];
+        }
+    }
+
+    private void rescanTop() {
+        int best = 0;
+        for (int i = 1; i < size; i++) {
+            if (sales[i] > sales[best]) {
+                best = i;
+            }
+        }
+        topProduct = products[best];
+    }
+
+    private void place(int slot, String product, double amount, double error) {
+        products[slot] = product;
+        sales[slot] = amount;
+        errors[slot] = error;
+        slots.put(product, slot);
+    }
+
+    private int reposition(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (sales[slot] >= sales[parent]) {
+                break;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+
+        while (true) {
+            int smallest = slot;
+            int left = 2 * slot + 1;
+            int right = left + 1;
+            if (left < size && sales[left] < sales[smallest]) {
+                smallest = left;
+            }
+            if (right < size && sales[right] < sales[smallest]) {
+                smallest = right;
+            }
+            if (smallest == slot) {
+                return slot;
+            }
+            swap(slot, smallest);
+            slot = smallest;
+        }
+    }
+
+    private void swap(int left, int right) {
+        String product = products[left];
+        double amount = sales[left];
+        double error = errors[left];
+
+        products[left] = products[right];
+        sales[left] = sales[right];
+        errors[left] = errors[right];
+        slots.put(products[left], left);
+
+        products[right] = product;
+        sales[right] = amount;
+        errors[right] = error;
+        slots.put(product, right);
+    }
+}
@@ -2,7 +2,6 @@ package com.teamred.datapipeline.processor.aggregation;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
-import java.util.HashSet;
 import java.util.Set;
 
 public class SalesmanAggregate {
@@ -12,10 +11,16 @@ public class SalesmanAggregate {
     private long windowEnd;
     private double totalSales;
     private int transactionCount;
-    private Set<String> citiesCovered;
+    private HyperLogLog citiesCovered;
+    private HyperLogLog customers;
 
     public SalesmanAggregate() {
-        this.citiesCovered = new HashSet<>();
+        this(HyperLogLog.DEFAULT_PRECISION);
+    }
+
+    public SalesmanAggregate(int sketchPrecision) {
+        this.citiesCovered = new HyperLogLog(sketchPrecision);
+        this.customers = new HyperLogLog(sketchPrecision);
     }
 
     public String getSalesmanId() {
@@ -66,16 +71,45 @@ public class SalesmanAggregate {
         this.transactionCount = transactionCount;
     }
 
-    public Set<String> getCitiesCovered() {
+    public void setCitiesCovered(Set<String> citiesCovered) {
+        citiesCovered.forEach(this::addCity);
+    }
+
+    public void addCity(String city) {
+        citiesCovered.add(city);
+    }
+
+    public void addCustomer(String customerId) {
+        customers.add(customerId);
+    }
+
+    @JsonIgnore
+    public HyperLogLog getCitiesSketch() {
         return citiesCovered;
     }
 
-    public void setCitiesCovered(Set<String> citiesCovered) {
-        this.citiesCovered = citiesCovered;
+    @JsonIgnore
+    public void setCitiesSketch(HyperLogLog citiesSketch) {
+        this.citiesCovered = citiesSketch;
+    }
+
+    @JsonIgnore
+    public HyperLogLog getCustomersSketch() {
+        return customers;
+    }
+
+    @JsonIgnore
+    public void setCustomersSketch(HyperLogLog customersSketch) {
+        this.customers = customersSketch;
     }
 
     @JsonIgnore
     public int getCitiesCount() {
-        return citiesCovered.size();
+        return (int) citiesCovered.estimate();
+    }
+
+    @JsonIgnore
+    public int getCustomersCount() {
+        return (int) customers.estimate();
     }
 }
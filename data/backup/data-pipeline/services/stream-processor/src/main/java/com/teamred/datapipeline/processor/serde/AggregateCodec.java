@@ -0,0 +1,25 @@
+package com.teamred.datapipeline.processor.serde;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public interface AggregateCodec<T> {
+
+    byte version();
+
+    void write(T value, DataOutput out) throws IOException;
+
+    T read(byte version, DataInput in) throws IOException;
+
+    static void writeNullableString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,81 @@
+package com.teamred.datapipeline.processor.serde;
+
+import com.teamred.datapipeline.processor.aggregation.CitySalesAggregate;
+import com.teamred.datapipeline.processor.aggregation.ProductSalesSketch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CitySalesAggregateCodec implements AggregateCodec<CitySalesAggregate> {
+
+    private static final byte VERSION = 2;
+
+    private final int productCapacity;
+
+    public CitySalesAggregateCodec(int productCapacity) {
+        this.productCapacity = productCapacity;
+    }
+
+    @Override
+    public byte version() {
+        return VERSION;
+    }
+
+    @Override
+    public void write(CitySalesAggregate aggregate, DataOutput out) throws IOException {
+        AggregateCodec.writeNullableString(out, aggregate.getCity());
+        out.writeLong(aggregate.getWindowStart());
+        out.writeLong(aggregate.getWindowEnd());
+        out.writeDouble(aggregate.getTotalSales());
+        out.writeInt(aggregate.getTransactionCount());
+
+        ProductSalesSketch sketch = aggregate.getProductSketch();
+        List<ProductSalesSketch.Entry> entries = sketch.entries();
+        out.writeInt(entries.size());
+        for (ProductSalesSketch.Entry entry : entries) {
+            AggregateCodec.writeNullableString(out, entry.product());
+        }
+        for (ProductSalesSketch.Entry entry : entries) {
+            out.writeDouble(entry.sales());
+        }
+        for (ProductSalesSketch.Entry entry : entries) {
+            out.writeDouble(entry.error());
+        }
+    }
+
+    @Override
+    public CitySalesAggregate read(byte version, DataInput in) throws IOException {
+        CitySalesAggregate aggregate = new CitySalesAggregate(productCapacity);
+        aggregate.setCity(AggregateCodec.readNullableString(in));
+        aggregate.setWindowStart(in.readLong());
+        aggregate.setWindowEnd(in.readLong());
+        aggregate.setTotalSales(in.readDouble());
+        aggregate.setTransactionCount(in.readInt());
+
+        int size = in.readInt();
+        String[] products = new String[size];
+        for (int id = 0; id < size; id++) {
+            products[id] = AggregateCodec.readNullableString(in);
+        }
+        double[] sales = new double[size];
+        for (int id = 0; id < size; id++) {
+            sales[id] = in.readDouble();
+        }
+        double[] errors = new double[size];
+        if (version >= 2) {
+            for (int id = 0; id < size; id++) {
+                errors[id] = in.readDouble();
+            }
+        }
+
+        List<ProductSalesSketch.Entry> entries = new ArrayList<>(size);
+        for (int id = 0; id < size; id++) {
+            entries.add(new ProductSalesSketch.Entry(products[id], sales[id], errors[id]));
+        }
+        aggregate.setProductSketch(ProductSalesSketch.of(productCapacity, entries));
+        return aggregate;
+    }
+}
@@ -0,0 +1,103 @@
+package com.teamred.datapipeline.processor.serde;
+
+import com.teamred.datapipeline.processor.aggregation.HyperLogLog;
+import com.teamred.datapipeline.processor.aggregation.SalesmanAggregate;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class SalesmanAggregateCodec implements AggregateCodec<SalesmanAggregate> {
+
+    private static final byte VERSION = 2;
+    private static final byte SPARSE = 0;
+    private static final byte DENSE = 1;
+
+    private final int sketchPrecision;
+
+    public SalesmanAggregateCodec(int sketchPrecision) {
+        this.sketchPrecision = sketchPrecision;
+    }
+
+    @Override
+    public byte version() {
+        return VERSION;
+    }
+
+    @Override
+    public void write(SalesmanAggregate aggregate, DataOutput out) throws IOException {
+        AggregateCodec.writeNullableString(out, aggregate.getSalesmanId());
+        AggregateCodec.writeNullableString(out, aggregate.getSalesmanName());
+        out.writeLong(aggregate.getWindowStart());
+        out.writeLong(aggregate.getWindowEnd());
+        out.writeDouble(aggregate.getTotalSales());
+        out.writeInt(aggregate.getTransactionCount());
+        writeSketch(aggregate.getCitiesSketch(), out);
+        writeSketch(aggregate.getCustomersSketch(), out);
+    }
+
+    @Override
+    public SalesmanAggregate read(byte version, DataInput in) throws IOException {
+        SalesmanAggregate aggregate = new SalesmanAggregate(sketchPrecision);
+        aggregate.setSalesmanId(AggregateCodec.readNullableString(in));
+        aggregate.setSalesmanName(AggregateCodec.readNullableString(in));
+        aggregate.setWindowStart(in.readLong());
+        aggregate.setWindowEnd(in.readLong());
+        aggregate.setTotalSales(in.readDouble());
+        aggregate.setTransactionCount(in.readInt());
+
+        if (version >= 2) {
+            aggregate.setCitiesSketch(readSketch(in));
+            aggregate.setCustomersSketch(readSketch(in));
+            return aggregate;
+        }
+
+        int size = in.readInt();
+        for (int id = 0; id < size; id++) {
+            aggregate.addCity(AggregateCodec.readNullableString(in));
+        }
+        return aggregate;
+    }
+
+    private static void writeSketch(HyperLogLog sketch, DataOutput out) throws IOException {
+        byte[] registers = sketch.registers();
+        int occupied = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                occupied++;
+            }
+        }
+
+        out.writeByte(sketch.precision());
+        if (occupied * 3 >= registers.length) {
+            out.writeByte(DENSE);
+            out.write(registers);
+            return;
+        }
+
+        out.writeByte(SPARSE);
+        out.writeInt(occupied);
+        for (int index = 0; index < registers.length; index++) {
+            if (registers[index] != 0) {
+                out.writeShort(index);
+                out.writeByte(registers[index]);
+            }
+        }
+    }
+
+    private static HyperLogLog readSketch(DataInput in) throws IOException {
+        int precision = in.readByte();
+        byte[] registers = new byte[1 << precision];
+        byte encoding = in.readByte();
+        if (encoding == DENSE) {
+            in.readFully(registers);
+        } else {
+            int occupied = in.readInt();
+            for (int i = 0; i < occupied; i++) {
+                int index = in.readUnsignedShort();
+                registers[index] = in.readByte();
+            }
+        }
+        return HyperLogLog.fromRegisters(precision, registers);
+    }
+}
@@ -0,0 +1,76 @@
+package com.teamred.datapipeline.processor.serde;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.function.Supplier;
+
+public class VersionedAggregateSerde<T> implements Serde<T> {
+
+    private static final byte LEGACY_JSON_OBJECT = '{';
+    private static final ObjectMapper LEGACY_MAPPER = new ObjectMapper();
+
+    private final AggregateCodec<T> codec;
+    private final Deserializer<T> legacyDeserializer;
+
+    public VersionedAggregateSerde(AggregateCodec<T> codec, Supplier<T> legacyFactory) {
+        this.codec = codec;
+        this.legacyDeserializer = (topic, data) -> {
+            try {
+                return LEGACY_MAPPER.readerForUpdating(legacyFactory.get()).readValue(data);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to deserialize legacy aggregate", e);
+            }
+        };
+    }
+
+    @Override
+    public Serializer<T> serializer() {
+        return (topic, value) -> {
+            if (value == null) {
+                return null;
+            }
+
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeByte(codec.version());
+                codec.write(value, out);
+                out.flush();
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to serialize aggregate", e);
+            }
+        };
+    }
+
+    @Override
+    public Deserializer<T> deserializer() {
+        return (topic, data) -> {
+            if (data == null) {
+                return null;
+            }
+            if (data.length > 0 && data[0] == LEGACY_JSON_OBJECT) {
+                return legacyDeserializer.deserialize(topic, data);
+            }
+
+            try {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+                byte version = in.readByte();
+                if (version < 1 || version > codec.version()) {
+                    throw new IOException("Unsupported aggregate format version " + version);
+                }
+                return codec.read(version, in);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to deserialize aggregate", e);
+            }
+        };
+    }
+}
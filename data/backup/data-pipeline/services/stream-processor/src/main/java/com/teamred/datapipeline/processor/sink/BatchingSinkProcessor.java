@@ -0,0 +1,146 @@
+package com.teamred.datapipeline.processor.sink;
+
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.processor.Cancellable;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.ProcessorSupplier;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.StoreBuilder;
+import org.apache.kafka.streams.state.Stores;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public class BatchingSinkProcessor<V> implements Processor<Windowed<String>, V, Void, Void> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchingSinkProcessor.class);
+
+    private final String name;
+    private final String storeName;
+    private final SinkOptions options;
+    private final Consumer<List<V>> writer;
+    private KeyValueStore<String, V> pending;
+    private int pendingCount;
+    private Cancellable punctuator;
+
+    public BatchingSinkProcessor(String name, String storeName, SinkOptions options, Consumer<List<V>> writer) {
+        this.name = name;
+        this.storeName = storeName;
+        this.options = options;
+        this.writer = writer;
+    }
+
+    public static <V> ProcessorSupplier<Windowed<String>, V, Void, Void> supplier(
+            String name, String storeName, Serde<V> valueSerde, SinkOptions options, Consumer<List<V>> writer) {
+        StoreBuilder<KeyValueStore<String, V>> store = Stores
+                .keyValueStoreBuilder(Stores.persistentKeyValueStore(storeName), Serdes.String(), valueSerde)
+                .withCachingDisabled();
+
+        return new ProcessorSupplier<>() {
+            @Override
+            public Processor<Windowed<String>, V, Void, Void> get() {
+                return new BatchingSinkProcessor<>(name, storeName, options, writer);
+            }
+
+            @Override
+            public Set<StoreBuilder<?>> stores() {
+                return Set.of(store);
+            }
+        };
+    }
+
+    @Override
+    public void init(ProcessorContext<Void, Void> context) {
+        pending = context.getStateStore(storeName);
+        try (KeyValueIterator<String, V> restored = pending.all()) {
+            while (restored.hasNext()) {
+                restored.next();
+                pendingCount++;
+            }
+        }
+        if (pendingCount > 0) {
+            logger.info("Restored {} buffered {} rows", pendingCount, name);
+        }
+        punctuator = context.schedule(options.flushInterval(), PunctuationType.WALL_CLOCK_TIME, timestamp -> flush());
+    }
+
+    @Override
+    public void process(Record<Windowed<String>, V> record) {
+        if (record.value() == null) {
+            return;
+        }
+
+        String key = record.key().key() + "@" + record.key().window().start();
+        if (pending.get(key) == null) {
+            pendingCount++;
+        }
+        pending.put(key, record.value());
+        if (pendingCount >= options.batchSize()) {
+            flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (punctuator != null) {
+            punctuator.cancel();
+        }
+    }
+
+    private void flush() {
+        if (pendingCount == 0) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>(pendingCount);
+        List<V> batch = new ArrayList<>(pendingCount);
+        try (KeyValueIterator<String, V> entries = pending.all()) {
+            while (entries.hasNext()) {
+                KeyValue<String, V> entry = entries.next();
+                keys.add(entry.key);
+                batch.add(entry.value);
+            }
+        }
+
+        write(batch);
+        for (String key : keys) {
+            pending.delete(key);
+        }
+        pendingCount = 0;
+        logger.info("Flushed {} {} rows to TimescaleDB", batch.size(), name);
+    }
+
+    private void write(List<V> batch) {
+        long backoffMs = options.retryBackoff().toMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                writer.accept(batch);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= options.writeAttempts()) {
+                    throw e;
+                }
+                logger.warn("Attempt {}/{} to flush {} {} rows failed, retrying in {} ms",
+                        attempt, options.writeAttempts(), batch.size(), name, backoffMs, e);
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                backoffMs *= 2;
+            }
+        }
+    }
+}
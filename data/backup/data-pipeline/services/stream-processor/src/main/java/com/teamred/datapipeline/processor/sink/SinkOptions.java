@@ -0,0 +1,21 @@
+package com.teamred.datapipeline.processor.sink;
+
+import java.time.Duration;
+
+public record SinkOptions(boolean finalOnly, Duration flushInterval, int batchSize, int writeAttempts, Duration retryBackoff) {
+
+    public static SinkOptions fromEnv() {
+        String emitMode = System.getenv().getOrDefault("SINK_EMIT_MODE", "update");
+        if (!"update".equalsIgnoreCase(emitMode) && !"final".equalsIgnoreCase(emitMode)) {
+            throw new IllegalArgumentException("Unknown sink emit mode: " + emitMode);
+        }
+
+        return new SinkOptions(
+                "final".equalsIgnoreCase(emitMode),
+                Duration.ofMillis(Long.parseLong(System.getenv().getOrDefault("SINK_FLUSH_INTERVAL_MS", "1000"))),
+                Integer.parseInt(System.getenv().getOrDefault("SINK_BATCH_SIZE", "500")),
+                Integer.parseInt(System.getenv().getOrDefault("SINK_WRITE_ATTEMPTS", "3")),
+                Duration.ofMillis(Long.parseLong(System.getenv().getOrDefault("SINK_RETRY_BACKOFF_MS", "500")))
+        );
+    }
+}
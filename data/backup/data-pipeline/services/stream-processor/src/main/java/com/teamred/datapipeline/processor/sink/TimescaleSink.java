@@ -1,5 +1,7 @@
 package com.teamred.datapipeline.processor.sink;
 
+import com.teamred.datapipeline.processor.aggregation.CitySalesAggregate;
+import com.teamred.datapipeline.processor.aggregation.SalesmanAggregate;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
@@ -7,7 +9,9 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.List;
 
 public class TimescaleSink {
 
@@ -23,6 +27,7 @@ public class TimescaleSink {
         config.setMinimumIdle(2);
         config.setConnectionTimeout(10000);
         config.setInitializationFailTimeout(-1);
+        config.addDataSourceProperty("reWriteBatchedInserts", "true");
 
         HikariDataSource ds = null;
         int maxRetries = 60;
@@ -58,8 +63,7 @@ public class TimescaleSink {
         this.dataSource = ds;
     }
 
-    public void insertCitySales(String city, long windowStart, long windowEnd, double totalSales,
-                                 int transactionCount, String topProduct, double topProductSales) {
+    public void insertCitySales(List<CitySalesAggregate> aggregates) {
         String sql = """
                 INSERT INTO top_sales_by_city (city, window_start, window_end, total_sales, transaction_count, top_product, top_product_sales)
                 VALUES (?, ?, ?, ?, ?, ?, ?)
@@ -74,51 +78,62 @@ public class TimescaleSink {
         try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, city);
-            stmt.setTimestamp(2, new Timestamp(windowStart));
-            stmt.setTimestamp(3, new Timestamp(windowEnd));
-            stmt.setDouble(4, totalSales);
-            stmt.setInt(5, transactionCount);
-            stmt.setString(6, topProduct);
-            stmt.setDouble(7, topProductSales);
+            for (CitySalesAggregate aggregate : aggregates) {
+                stmt.setString(1, aggregate.getCity());
+                stmt.setTimestamp(2, new Timestamp(aggregate.getWindowStart()));
+                stmt.setTimestamp(3, new Timestamp(aggregate.getWindowEnd()));
+                stmt.setDouble(4, aggregate.getTotalSales());
+                stmt.setInt(5, aggregate.getTransactionCount());
+                stmt.setString(6, aggregate.getTopProduct());
+                stmt.setDouble(7, aggregate.getTopProductSales());
+                stmt.addBatch();
+            }
 
-            stmt.executeUpdate();
-            logger.debug("Inserted city sales: {} - ${}", city, totalSales);
+            stmt.executeBatch();
+            logger.debug("Upserted {} city sales rows", aggregates.size());
 
-        } catch (Exception e) {
-            logger.error("Error inserting city sales", e);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to upsert " + aggregates.size() + " city sales rows", e);
         }
     }
 
-    public void insertSalesmanStats(String salesmanId, String salesmanName, long windowStart, long windowEnd,
-                                     double totalSales, int transactionCount, int citiesCovered) {
+    public void insertSalesmanStats(List<SalesmanAggregate> aggregates) {
         String sql = """
-                INSERT INTO top_salesman_country (salesman_id, salesman_name, window_start, window_end, total_sales, transaction_count, cities_covered)
-                VALUES (?, ?, ?, ?, ?, ?, ?)
+                INSERT INTO top_salesman_country (salesman_id, salesman_name, window_start, window_end, total_sales, transaction_count, cities_covered, distinct_customers, cities_hll, customers_hll)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
                 ON CONFLICT (salesman_id, window_start) DO UPDATE SET
                     salesman_name = EXCLUDED.salesman_name,
                     window_end = EXCLUDED.window_end,
                     total_sales = EXCLUDED.total_sales,
                     transaction_count = EXCLUDED.transaction_count,
-                    cities_covered = EXCLUDED.cities_covered
+                    cities_covered = EXCLUDED.cities_covered,
+                    distinct_customers = EXCLUDED.distinct_customers,
+                    cities_hll = EXCLUDED.cities_hll,
+                    customers_hll = EXCLUDED.customers_hll
                 """;
 
         try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, salesmanId);
-            stmt.setString(2, salesmanName);
-            stmt.setTimestamp(3, new Timestamp(windowStart));
-            stmt.setTimestamp(4, new Timestamp(windowEnd));
-            stmt.setDouble(5, totalSales);
-            stmt.setInt(6, transactionCount);
-            stmt.setInt(7, citiesCovered);
+            for (SalesmanAggregate aggregate : aggregates) {
+                stmt.setString(1, aggregate.getSalesmanId());
+                stmt.setString(2, aggregate.getSalesmanName());
+                stmt.setTimestamp(3, new Timestamp(aggregate.getWindowStart()));
+                stmt.setTimestamp(4, new Timestamp(aggregate.getWindowEnd()));
+                stmt.setDouble(5, aggregate.getTotalSales());
+                stmt.setInt(6, aggregate.getTransactionCount());
+                stmt.setInt(7, aggregate.getCitiesCount());
+                stmt.setInt(8, aggregate.getCustomersCount());
+                stmt.setBytes(9, aggregate.getCitiesSketch().toBytes());
+                stmt.setBytes(10, aggregate.getCustomersSketch().toBytes());
+                stmt.addBatch();
+            }
 
-            stmt.executeUpdate();
-            logger.debug("Inserted salesman stats: {} - ${}", salesmanName, totalSales);
+            stmt.executeBatch();
+            logger.debug("Upserted {} salesman stats rows", aggregates.size());
 
-        } catch (Exception e) {
-            logger.error("Error inserting salesman stats", e);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to upsert " + aggregates.size() + " salesman stats rows", e);
         }
     }
 
@@ -2,46 +2,48 @@ package com.teamred.datapipeline.processor.topology;
 
 import com.teamred.datapipeline.model.SalesEventDto;
 import com.teamred.datapipeline.processor.aggregation.CitySalesAggregate;
+import com.teamred.datapipeline.processor.serde.CitySalesAggregateCodec;
+import com.teamred.datapipeline.processor.serde.VersionedAggregateSerde;
+import com.teamred.datapipeline.processor.sink.BatchingSinkProcessor;
+import com.teamred.datapipeline.processor.sink.SinkOptions;
 import com.teamred.datapipeline.processor.sink.TimescaleSink;
 import com.teamred.datapipeline.serdes.JsonSerde;
 import org.apache.kafka.common.serialization.Serdes;
-import org.apache.kafka.streams.StreamsBuilder;
-import org.apache.kafka.streams.Topology;
+import org.apache.kafka.common.utils.Bytes;
 import org.apache.kafka.streams.kstream.*;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.apache.kafka.streams.state.WindowStore;
 
 import java.time.Duration;
 
-public class CitySalesTopology {
+public class CitySalesTopology implements SalesBranch {
 
-    private static final Logger logger = LoggerFactory.getLogger(CitySalesTopology.class);
     private final TimescaleSink timescaleSink;
+    private final SinkOptions sinkOptions;
+    private final int productCapacity;
 
-    public CitySalesTopology(TimescaleSink timescaleSink) {
+    public CitySalesTopology(TimescaleSink timescaleSink, SinkOptions sinkOptions, int productCapacity) {
         this.timescaleSink = timescaleSink;
+        this.sinkOptions = sinkOptions;
+        this.productCapacity = productCapacity;
     }
 
-    public Topology build() {
-        StreamsBuilder builder = new StreamsBuilder();
-
-        KStream<String, SalesEventDto> salesStream = builder.stream(
-                "sales.raw.db",
-                Consumed.with(Serdes.String(), new JsonSerde<>(SalesEventDto.class))
-        );
+    @Override
+    public String name() {
+        return "city";
+    }
 
-        KStream<String, SalesEventDto> allSales = salesStream
-                .merge(builder.stream("sales.raw.file", Consumed.with(Serdes.String(), new JsonSerde<>(SalesEventDto.class))))
-                .merge(builder.stream("sales.raw.soap", Consumed.with(Serdes.String(), new JsonSerde<>(SalesEventDto.class))));
+    @Override
+    public void addTo(KStream<String, SalesEventDto> allSales) {
+        VersionedAggregateSerde<CitySalesAggregate> aggregateSerde = new VersionedAggregateSerde<>(new CitySalesAggregateCodec(productCapacity), () -> new CitySalesAggregate(productCapacity));
 
         TimeWindowedKStream<String, SalesEventDto> windowedByCity = allSales
                 .selectKey((key, value) -> value.getCity())
-                .groupByKey(Grouped.with(Serdes.String(), new JsonSerde<>(SalesEventDto.class)))
+                .groupByKey(Grouped.with("city-sales-by-key", Serdes.String(), new JsonSerde<>(SalesEventDto.class)))
                 .windowedBy(TimeWindows.ofSizeWithNoGrace(Duration.ofHours(1)));
 
-        windowedByCity
+        KTable<Windowed<String>, CitySalesAggregate> citySales = windowedByCity
                 .aggregate(
-                        CitySalesAggregate::new,
+                        () -> new CitySalesAggregate(productCapacity),
                         (city, event, aggregate) -> {
                             if (aggregate.getCity() == null) {
                                 aggregate.setCity(city);
@@ -49,38 +51,26 @@ public class CitySalesTopology {
                             aggregate.setTotalSales(aggregate.getTotalSales() + event.getTotalAmount());
                             aggregate.setTransactionCount(aggregate.getTransactionCount() + 1);
 
-                            aggregate.getProductSales().merge(
-                                    event.getProductName(),
-                                    event.getTotalAmount(),
-                                    Double::sum
-                            );
+                            aggregate.addProductSale(event.getProductName(), event.getTotalAmount());
 
                             return aggregate;
                         },
-                        Materialized.with(Serdes.String(), new JsonSerde<>(CitySalesAggregate.class))
-                )
-                .toStream()
-                .foreach((windowedKey, aggregate) -> {
-                    long windowStart = windowedKey.window().start();
-                    long windowEnd = windowedKey.window().end();
+                        Materialized.<String, CitySalesAggregate, WindowStore<Bytes, byte[]>>as("city-sales")
+                                .withKeySerde(Serdes.String())
+                                .withValueSerde(aggregateSerde)
+                );
 
-                    aggregate.setWindowStart(windowStart);
-                    aggregate.setWindowEnd(windowEnd);
+        if (sinkOptions.finalOnly()) {
+            citySales = citySales.suppress(Suppressed.untilWindowCloses(Suppressed.BufferConfig.unbounded()).withName("city-sales-final"));
+        }
 
-                    timescaleSink.insertCitySales(
-                            aggregate.getCity(),
-                            windowStart,
-                            windowEnd,
-                            aggregate.getTotalSales(),
-                            aggregate.getTransactionCount(),
-                            aggregate.getTopProduct(),
-                            aggregate.getTopProductSales()
-                    );
-
-                    logger.info("City sales aggregated: {} - ${} ({} transactions)",
-                            aggregate.getCity(), aggregate.getTotalSales(), aggregate.getTransactionCount());
-                });
-
-        return builder.build();
+        citySales
+                .toStream()
+                .mapValues((windowedKey, aggregate) -> {
+                    aggregate.setWindowStart(windowedKey.window().start());
+                    aggregate.setWindowEnd(windowedKey.window().end());
+                    return aggregate;
+                })
+                .process(BatchingSinkProcessor.supplier("city sales", "city-sales-sink-buffer", aggregateSerde, sinkOptions, timescaleSink::insertCitySales));
     }
 }
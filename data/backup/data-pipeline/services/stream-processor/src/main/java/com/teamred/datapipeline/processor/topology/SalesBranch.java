@@ -0,0 +1,11 @@
+package com.teamred.datapipeline.processor.topology;
+
+import com.teamred.datapipeline.model.SalesEventDto;
+import org.apache.kafka.streams.kstream.KStream;
+
+public interface SalesBranch {
+
+    String name();
+
+    void addTo(KStream<String, SalesEventDto> sales);
+}
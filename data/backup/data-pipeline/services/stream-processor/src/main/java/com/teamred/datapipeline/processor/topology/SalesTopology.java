@@ -0,0 +1,35 @@
+package com.teamred.datapipeline.processor.topology;
+
+import com.teamred.datapipeline.model.SalesEventDto;
+import com.teamred.datapipeline.serdes.JsonSerde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.KStream;
+
+import java.util.List;
+
+public class SalesTopology {
+
+    private final List<SalesBranch> branches;
+
+    public SalesTopology(List<SalesBranch> branches) {
+        this.branches = List.copyOf(branches);
+    }
+
+    public Topology build() {
+        StreamsBuilder builder = new StreamsBuilder();
+
+        KStream<String, SalesEventDto> allSales = builder.stream(
+                List.of("sales.raw.db", "sales.raw.file", "sales.raw.soap"),
+                Consumed.with(Serdes.String(), new JsonSerde<>(SalesEventDto.class)).withName("sales-source")
+        );
+
+        for (SalesBranch branch : branches) {
+            branch.addTo(allSales);
+        }
+
+        return builder.build();
+    }
+}
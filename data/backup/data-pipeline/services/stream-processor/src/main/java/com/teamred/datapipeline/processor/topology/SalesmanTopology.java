@@ -2,46 +2,48 @@ package com.teamred.datapipeline.processor.topology;
 
 import com.teamred.datapipeline.model.SalesEventDto;
 import com.teamred.datapipeline.processor.aggregation.SalesmanAggregate;
+import com.teamred.datapipeline.processor.serde.SalesmanAggregateCodec;
+import com.teamred.datapipeline.processor.serde.VersionedAggregateSerde;
+import com.teamred.datapipeline.processor.sink.BatchingSinkProcessor;
+import com.teamred.datapipeline.processor.sink.SinkOptions;
 import com.teamred.datapipeline.processor.sink.TimescaleSink;
 import com.teamred.datapipeline.serdes.JsonSerde;
 import org.apache.kafka.common.serialization.Serdes;
-import org.apache.kafka.streams.StreamsBuilder;
-import org.apache.kafka.streams.Topology;
+import org.apache.kafka.common.utils.Bytes;
 import org.apache.kafka.streams.kstream.*;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.apache.kafka.streams.state.WindowStore;
 
 import java.time.Duration;
 
-public class SalesmanTopology {
+public class SalesmanTopology implements SalesBranch {
 
-    private static final Logger logger = LoggerFactory.getLogger(SalesmanTopology.class);
     private final TimescaleSink timescaleSink;
+    private final SinkOptions sinkOptions;
+    private final int sketchPrecision;
 
-    public SalesmanTopology(TimescaleSink timescaleSink) {
+    public SalesmanTopology(TimescaleSink timescaleSink, SinkOptions sinkOptions, int sketchPrecision) {
         this.timescaleSink = timescaleSink;
+        this.sinkOptions = sinkOptions;
+        this.sketchPrecision = sketchPrecision;
     }
 
-    public Topology build() {
-        StreamsBuilder builder = new StreamsBuilder();
-
-        KStream<String, SalesEventDto> salesStream = builder.stream(
-                "sales.raw.db",
-                Consumed.with(Serdes.String(), new JsonSerde<>(SalesEventDto.class))
-        );
+    @Override
+    public String name() {
+        return "salesman";
+    }
 
-        KStream<String, SalesEventDto> allSales = salesStream
-                .merge(builder.stream("sales.raw.file", Consumed.with(Serdes.String(), new JsonSerde<>(SalesEventDto.class))))
-                .merge(builder.stream("sales.raw.soap", Consumed.with(Serdes.String(), new JsonSerde<>(SalesEventDto.class))));
+    @Override
+    public void addTo(KStream<String, SalesEventDto> allSales) {
+        VersionedAggregateSerde<SalesmanAggregate> aggregateSerde = new VersionedAggregateSerde<>(new SalesmanAggregateCodec(sketchPrecision), () -> new SalesmanAggregate(sketchPrecision));
 
         TimeWindowedKStream<String, SalesEventDto> windowedBySalesman = allSales
                 .selectKey((key, value) -> value.getSalesmanId())
-                .groupByKey(Grouped.with(Serdes.String(), new JsonSerde<>(SalesEventDto.class)))
+                .groupByKey(Grouped.with("salesman-stats-by-key", Serdes.String(), new JsonSerde<>(SalesEventDto.class)))
                 .windowedBy(TimeWindows.ofSizeWithNoGrace(Duration.ofHours(1)));
 
-        windowedBySalesman
+        KTable<Windowed<String>, SalesmanAggregate> salesmanStats = windowedBySalesman
                 .aggregate(
-                        SalesmanAggregate::new,
+                        () -> new SalesmanAggregate(sketchPrecision),
                         (salesmanId, event, aggregate) -> {
                             if (aggregate.getSalesmanId() == null) {
                                 aggregate.setSalesmanId(salesmanId);
@@ -49,35 +51,27 @@ public class SalesmanTopology {
                             }
                             aggregate.setTotalSales(aggregate.getTotalSales() + event.getTotalAmount());
                             aggregate.setTransactionCount(aggregate.getTransactionCount() + 1);
-                            aggregate.getCitiesCovered().add(event.getCity());
+                            aggregate.addCity(event.getCity());
+                            aggregate.addCustomer(event.getCustomerId());
 
                             return aggregate;
                         },
-                        Materialized.with(Serdes.String(), new JsonSerde<>(SalesmanAggregate.class))
-                )
-                .toStream()
-                .foreach((windowedKey, aggregate) -> {
-                    long windowStart = windowedKey.window().start();
-                    long windowEnd = windowedKey.window().end();
+                        Materialized.<String, SalesmanAggregate, WindowStore<Bytes, byte[]>>as("salesman-stats")
+                                .withKeySerde(Serdes.String())
+                                .withValueSerde(aggregateSerde)
+                );
 
-                    aggregate.setWindowStart(windowStart);
-                    aggregate.setWindowEnd(windowEnd);
+        if (sinkOptions.finalOnly()) {
+            salesmanStats = salesmanStats.suppress(Suppressed.untilWindowCloses(Suppressed.BufferConfig.unbounded()).withName("salesman-stats-final"));
+        }
 
-                    timescaleSink.insertSalesmanStats(
-                            aggregate.getSalesmanId(),
-                            aggregate.getSalesmanName(),
-                            windowStart,
-                            windowEnd,
-                            aggregate.getTotalSales(),
-                            aggregate.getTransactionCount(),
-                            aggregate.getCitiesCount()
-                    );
-
-                    logger.info("Salesman sales aggregated: {} - ${} ({} transactions, {} cities)",
-                            aggregate.getSalesmanName(), aggregate.getTotalSales(),
-                            aggregate.getTransactionCount(), aggregate.getCitiesCount());
-                });
-
-        return builder.build();
+        salesmanStats
+                .toStream()
+                .mapValues((windowedKey, aggregate) -> {
+                    aggregate.setWindowStart(windowedKey.window().start());
+                    aggregate.setWindowEnd(windowedKey.window().end());
+                    return aggregate;
+                })
+                .process(BatchingSinkProcessor.supplier("salesman stats", "salesman-stats-sink-buffer", aggregateSerde, sinkOptions, timescaleSink::insertSalesmanStats));
     }
 }
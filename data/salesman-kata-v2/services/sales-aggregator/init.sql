@@ -76,3 +76,123 @@ SELECT add_continuous_aggregate_policy('top_salesmen',
     end_offset => INTERVAL '1 minute',
     schedule_interval => INTERVAL '5 minutes');
 
+
+CREATE MATERIALIZED VIEW top_products_daily
+WITH (timescaledb.continuous) AS
+SELECT
+    time_bucket('1 day', bucket) AS bucket,
+    product_name,
+    product_code,
+    category,
+    brand,
+    SUM(total_revenue) AS total_revenue,
+    SUM(total_quantity) AS total_quantity,
+    SUM(total_sales) AS total_sales,
+    MIN(bucket) AS first_hour,
+    MAX(bucket) AS last_hour
+FROM top_products
+GROUP BY 1, product_name, product_code, category, brand;
+
+CREATE MATERIALIZED VIEW top_products_monthly
+WITH (timescaledb.continuous) AS
+SELECT
+    time_bucket('1 month', bucket) AS bucket,
+    product_name,
+    product_code,
+    category,
+    brand,
+    SUM(total_revenue) AS total_revenue,
+    SUM(total_quantity) AS total_quantity,
+    SUM(total_sales) AS total_sales,
+    MIN(first_hour) AS first_hour,
+    MAX(last_hour) AS last_hour
+FROM top_products_daily
+GROUP BY 1, product_name, product_code, category, brand;
+
+CREATE MATERIALIZED VIEW top_cities_daily
+WITH (timescaledb.continuous) AS
+SELECT
+    time_bucket('1 day', bucket) AS bucket,
+    city,
+    region,
+    SUM(total_revenue) AS total_revenue,
+    SUM(total_quantity) AS total_quantity,
+    SUM(total_sales) AS total_sales,
+    MIN(bucket) AS first_hour,
+    MAX(bucket) AS last_hour
+FROM top_cities
+GROUP BY 1, city, region;
+
+CREATE MATERIALIZED VIEW top_cities_monthly
+WITH (timescaledb.continuous) AS
+SELECT
+    time_bucket('1 month', bucket) AS bucket,
+    city,
+    region,
+    SUM(total_revenue) AS total_revenue,
+    SUM(total_quantity) AS total_quantity,
+    SUM(total_sales) AS total_sales,
+    MIN(first_hour) AS first_hour,
+    MAX(last_hour) AS last_hour
+FROM top_cities_daily
+GROUP BY 1, city, region;
+
+CREATE MATERIALIZED VIEW top_salesmen_daily
+WITH (timescaledb.continuous) AS
+SELECT
+    time_bucket('1 day', bucket) AS bucket,
+    salesman_name,
+    salesman_email,
+    region,
+    SUM(total_revenue) AS total_revenue,
+    SUM(total_quantity) AS total_quantity,
+    SUM(total_sales) AS total_sales,
+    MIN(bucket) AS first_hour,
+    MAX(bucket) AS last_hour
+FROM top_salesmen
+GROUP BY 1, salesman_name, salesman_email, region;
+
+CREATE MATERIALIZED VIEW top_salesmen_monthly
+WITH (timescaledb.continuous) AS
+SELECT
+    time_bucket('1 month', bucket) AS bucket,
+    salesman_name,
+    salesman_email,
+    region,
+    SUM(total_revenue) AS total_revenue,
+    SUM(total_quantity) AS total_quantity,
+    SUM(total_sales) AS total_sales,
+    MIN(first_hour) AS first_hour,
+    MAX(last_hour) AS last_hour
+FROM top_salesmen_daily
+GROUP BY 1, salesman_name, salesman_email, region;
+
+SELECT add_continuous_aggregate_policy('top_products_daily',
+    start_offset => INTERVAL '3 days',
+    end_offset => INTERVAL '1 hour',
+    schedule_interval => INTERVAL '15 minutes');
+
+SELECT add_continuous_aggregate_policy('top_products_monthly',
+    start_offset => INTERVAL '3 months',
+    end_offset => INTERVAL '1 day',
+    schedule_interval => INTERVAL '1 hour');
+
+SELECT add_continuous_aggregate_policy('top_cities_daily',
+    start_offset => INTERVAL '3 days',
+    end_offset => INTERVAL '1 hour',
+    schedule_interval => INTERVAL '15 minutes');
+
+SELECT add_continuous_aggregate_policy('top_cities_monthly',
+    start_offset => INTERVAL '3 months',
+    end_offset => INTERVAL '1 day',
+    schedule_interval => INTERVAL '1 hour');
+
+SELECT add_continuous_aggregate_policy('top_salesmen_daily',
+    start_offset => INTERVAL '3 days',
+    end_offset => INTERVAL '1 hour',
+    schedule_interval => INTERVAL '15 minutes');
+
+SELECT add_continuous_aggregate_policy('top_salesmen_monthly',
+    start_offset => INTERVAL '3 months',
+    end_offset => INTERVAL '1 day',
+    schedule_interval => INTERVAL '1 hour');
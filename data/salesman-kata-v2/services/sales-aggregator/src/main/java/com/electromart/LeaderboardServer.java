@@ -0,0 +1,221 @@
+package com.electromart;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.StreamsMetadata;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.apache.kafka.streams.state.HostInfo;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+public class LeaderboardServer {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final String PUBLIC_PATH = "/leaderboards/";
+    private static final String INTERNAL_PATH = "/internal/leaderboards/";
+
+    private final KafkaStreams streams;
+    private final HostInfo self;
+    private final HttpClient client = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(2))
+        .build();
+    private HttpServer server;
+
+    public LeaderboardServer(KafkaStreams streams, HostInfo self) {
+        this.streams = streams;
+        this.self = self;
+    }
+
+    public void start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress(self.port()), 0);
+            server.createContext(PUBLIC_PATH, this::handleLeaderboard);
+            server.createContext(INTERNAL_PATH, this::handleLocalLeaderboard);
+            server.setExecutor(Executors.newFixedThreadPool(4));
+            server.start();
+            System.out.printf("Leaderboard query API listening on port %d (advertised as %s:%d)%n",
+                self.port(), self.host(), self.port());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start leaderboard query API", e);
+        }
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    private void handleLeaderboard(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            writeJson(exchange, 405, Map.of("error", "Method not allowed"));
+            return;
+        }
+
+        String[] parts = exchange.getRequestURI().getPath().substring(PUBLIC_PATH.length()).split("/");
+        if (parts.length != 2) {
+            writeJson(exchange, 404, Map.of("error", "Use /leaderboards/{city|salesman}/{hourly|daily}"));
+            return;
+        }
+
+        Leaderboards.Dimension dimension;
+        Leaderboards.Granularity granularity;
+        try {
+            dimension = Leaderboards.Dimension.valueOf(parts[0].toUpperCase(Locale.ROOT));
+            granularity = Leaderboards.Granularity.valueOf(parts[1].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            writeJson(exchange, 404, Map.of("error", "Use /leaderboards/{city|salesman}/{hourly|daily}"));
+            return;
+        }
+
+        Map<String, String> params = queryParams(exchange);
+        int limit = parseLimit(params.get("limit"), 10, 100);
+        Instant at;
+        try {
+            at = params.containsKey("at") ? Instant.parse(params.get("at")) : Instant.now();
+        } catch (Exception e) {
+            writeJson(exchange, 400, Map.of("error", "Invalid 'at' date. Use ISO-8601."));
+            return;
+        }
+
+        String store = Leaderboards.storeName(dimension, granularity);
+        Instant windowStart = granularity.windowStart(at);
+
+        try {
+            List<Leaderboards.Entry> merged = new ArrayList<>();
+            for (StreamsMetadata metadata : streams.streamsMetadataForStore(store)) {
+                if (metadata.hostInfo().equals(self)) {
+                    merged.addAll(queryLocal(store, windowStart, limit));
+                } else {
+                    merged.addAll(queryRemote(metadata.hostInfo(), store, windowStart, limit));
+                }
+            }
+
+            List<Leaderboards.Entry> top = Leaderboards.topN(merged, limit);
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("store", store);
+            response.put("window_start", windowStart.toString());
+            response.put("window_end", windowStart.plus(granularity.size()).toString());
+            response.put("count", top.size());
+            response.put("items", top);
+            writeJson(exchange, 200, response);
+        } catch (InvalidStateStoreException e) {
+            writeJson(exchange, 503, Map.of("error", "Leaderboard store is not queryable yet (rebalancing)"));
+        } catch (Exception e) {
+            e.printStackTrace(System.err);
+            writeJson(exchange, 500, Map.of("error", "Internal server error"));
+        }
+    }
+
+    private void handleLocalLeaderboard(HttpExchange exchange) throws IOException {
+        String store = exchange.getRequestURI().getPath().substring(INTERNAL_PATH.length());
+        Map<String, String> params = queryParams(exchange);
+
+        try {
+            Instant windowStart = Instant.ofEpochMilli(Long.parseLong(params.get("windowStart")));
+            int limit = parseLimit(params.get("limit"), 10, 100);
+            writeJson(exchange, 200, queryLocal(store, windowStart, limit));
+        } catch (NumberFormatException e) {
+            writeJson(exchange, 400, Map.of("error", "Invalid 'windowStart'"));
+        } catch (InvalidStateStoreException e) {
+            writeJson(exchange, 503, Map.of("error", "Leaderboard store is not queryable yet (rebalancing)"));
+        }
+    }
+
+    private List<Leaderboards.Entry> queryLocal(String store, Instant windowStart, int limit) {
+        ReadOnlyWindowStore<String, Double> windowStore = streams.store(
+            StoreQueryParameters.fromNameAndType(store, QueryableStoreTypes.windowStore())
+        );
+        return Leaderboards.topN(windowStore, windowStart, limit);
+    }
+
+    private List<Leaderboards.Entry> queryRemote(HostInfo host, String store, Instant windowStart, int limit) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create(String.format("http://%s:%d%s%s?windowStart=%d&limit=%d",
+                host.host(), host.port(), INTERNAL_PATH, store, windowStart.toEpochMilli(), limit)))
+            .timeout(Duration.ofSeconds(5))
+            .GET()
+            .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() == 503) {
+            throw new InvalidStateStoreException("Remote store " + store + " on " + host + " is rebalancing");
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("Remote leaderboard query to " + host + " failed with status " + response.statusCode());
+        }
+
+        return mapper.readValue(response.body(), new TypeReference<>() {
+        });
+    }
+
+    private static Map<String, String> queryParams(HttpExchange exchange) {
+        String rawQuery = exchange.getRequestURI().getRawQuery();
+        Map<String, String> values = new LinkedHashMap<>();
+
+        if (rawQuery != null && !rawQuery.isBlank()) {
+            for (String pair : rawQuery.split("&")) {
+                if (pair.isBlank()) {
+                    continue;
+                }
+
+                String[] kv = pair.split("=", 2);
+                values.put(
+                    URLDecoder.decode(kv[0], StandardCharsets.UTF_8),
+                    kv.length > 1 ? URLDecoder.decode(kv[1], StandardCharsets.UTF_8) : ""
+                );
+            }
+        }
+
+        return values;
+    }
+
+    private static int parseLimit(String value, int fallback, int max) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed <= 0) {
+                return fallback;
+            }
+            return Math.min(parsed, max);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static void writeJson(HttpExchange exchange, int statusCode, Object payload) throws IOException {
+        byte[] response = mapper.writeValueAsBytes(payload);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, response.length);
+
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(response);
+        }
+    }
+}
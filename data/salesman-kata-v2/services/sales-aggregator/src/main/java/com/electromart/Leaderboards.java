@@ -0,0 +1,164 @@
+package com.electromart;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KGroupedStream;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Named;
+import org.apache.kafka.streams.kstream.Repartitioned;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.WindowStore;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+public final class Leaderboards {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public enum Dimension {
+        CITY("city"),
+        SALESMAN("salesman_name");
+
+        private final String field;
+
+        Dimension(String field) {
+            this.field = field;
+        }
+
+        String field() {
+            return field;
+        }
+    }
+
+    public enum Granularity {
+        HOURLY(Duration.ofHours(1), Duration.ofHours(48)),
+        DAILY(Duration.ofDays(1), Duration.ofDays(35));
+
+        private final Duration size;
+        private final Duration retention;
+
+        Granularity(Duration size, Duration retention) {
+            this.size = size;
+            this.retention = retention;
+        }
+
+        Duration size() {
+            return size;
+        }
+
+        Duration retention() {
+            return retention;
+        }
+
+        Instant windowStart(Instant at) {
+            long sizeMs = size.toMillis();
+            return Instant.ofEpochMilli(at.toEpochMilli() - Math.floorMod(at.toEpochMilli(), sizeMs));
+        }
+    }
+
+    public record Entry(String key, double revenue) {
+    }
+
+    private Leaderboards() {
+    }
+
+    public static String storeName(Dimension dimension, Granularity granularity) {
+        return dimension.name().toLowerCase(Locale.ROOT) + "-revenue-" + granularity.name().toLowerCase(Locale.ROOT);
+    }
+
+    static void build(KStream<String, String> valid, Duration grace) {
+        KStream<String, JsonNode> sales = valid.process(SaleTimestampProcessor::new, Named.as("leaderboard-sale-timestamp"));
+
+        for (Dimension dimension : Dimension.values()) {
+            KStream<String, Double> revenue = sales
+                .filter((key, node) -> textOrNull(node, dimension.field()) != null)
+                .map((key, node) -> KeyValue.pair(textOrNull(node, dimension.field()), node.path("total_amount").asDouble(0)),
+                    Named.as("leaderboard-key-" + dimension.name().toLowerCase(Locale.ROOT)))
+                .repartition(Repartitioned.<String, Double>as("leaderboard-" + dimension.name().toLowerCase(Locale.ROOT) + "-revenue")
+                    .withKeySerde(Serdes.String())
+                    .withValueSerde(Serdes.Double()));
+            KGroupedStream<String, Double> grouped = revenue.groupByKey(Grouped.with(Serdes.String(), Serdes.Double()));
+
+            for (Granularity granularity : Granularity.values()) {
+                String store = storeName(dimension, granularity);
+                grouped
+                    .windowedBy(TimeWindows.ofSizeAndGrace(granularity.size(), grace))
+                    .reduce(Double::sum, Materialized.<String, Double, WindowStore<Bytes, byte[]>>as(store)
+                        .withKeySerde(Serdes.String())
+                        .withValueSerde(Serdes.Double())
+                        .withRetention(granularity.retention().plus(grace)));
+            }
+        }
+    }
+
+    static List<Entry> topN(ReadOnlyWindowStore<String, Double> store, Instant windowStart, int limit) {
+        List<Entry> entries = new ArrayList<>();
+
+        try (KeyValueIterator<Windowed<String>, Double> iterator = store.fetchAll(windowStart, windowStart)) {
+            while (iterator.hasNext()) {
+                KeyValue<Windowed<String>, Double> next = iterator.next();
+                entries.add(new Entry(next.key.key(), next.value));
+            }
+        }
+
+        return topN(entries, limit);
+    }
+
+    static List<Entry> topN(List<Entry> entries, int limit) {
+        return entries.stream()
+            .sorted(Comparator.comparingDouble(Entry::revenue).reversed().thenComparing(Entry::key))
+            .limit(limit)
+            .toList();
+    }
+
+    private static String textOrNull(JsonNode node, String field) {
+        JsonNode val = node.get(field);
+        if (val == null || val.isNull() || val.asText().isBlank()) {
+            return null;
+        }
+        return val.asText();
+    }
+
+    private static final class SaleTimestampProcessor implements Processor<String, String, String, JsonNode> {
+
+        private ProcessorContext<String, JsonNode> context;
+
+        @Override
+        public void init(ProcessorContext<String, JsonNode> context) {
+            this.context = context;
+        }
+
+        @Override
+        public void process(Record<String, String> record) {
+            JsonNode node;
+            try {
+                node = mapper.readTree(record.value());
+            } catch (Exception e) {
+                return;
+            }
+
+            long timestamp = record.timestamp();
+            try {
+                timestamp = Instant.parse(node.path("sale_timestamp").asText()).toEpochMilli();
+            } catch (Exception ignored) {
+            }
+            context.forward(record.withValue(node).withTimestamp(timestamp));
+        }
+    }
+}
@@ -18,7 +18,9 @@ import org.apache.kafka.streams.StreamsConfig;
 import org.apache.kafka.streams.kstream.Branched;
 import org.apache.kafka.streams.kstream.KStream;
 import org.apache.kafka.streams.kstream.Named;
+import org.apache.kafka.streams.state.HostInfo;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -45,6 +47,9 @@ public class SalesAggregator {
 
     public static void main(String[] args) throws Exception {
         String broker = env("KAFKA_BROKER", "kafka:9092");
+        String advertisedHost = env("LEADERBOARD_HOST", env("HOSTNAME", "localhost"));
+        int leaderboardPort = Integer.parseInt(env("LEADERBOARD_PORT", "8091"));
+        Duration leaderboardGrace = Duration.ofMinutes(Long.parseLong(env("LEADERBOARD_GRACE_MINUTES", "10")));
         TOPIC_RAW_CSV = env("TOPIC_RAW_CSV", "raw_csv");
         TOPIC_RAW_SOAP = env("TOPIC_RAW_SOAP", "raw_soap");
         TOPIC_RAW_POSTGRES = env("TOPIC_RAW_POSTGRES", "raw_postgres");
@@ -63,6 +68,7 @@ public class SalesAggregator {
         props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, broker);
         props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
         props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        props.put(StreamsConfig.APPLICATION_SERVER_CONFIG, advertisedHost + ":" + leaderboardPort);
 
         waitForTopics(broker);
         ensureTopic(broker, DLQ_TOPIC);
@@ -115,12 +121,19 @@ public class SalesAggregator {
             })
             .to(DLQ_TOPIC);
 
+        Leaderboards.build(valid, leaderboardGrace);
+
         KafkaStreams streams = new KafkaStreams(builder.build(), props);
-        Runtime.getRuntime().addShutdownHook(new Thread(streams::close));
+        LeaderboardServer leaderboardServer = new LeaderboardServer(streams, new HostInfo(advertisedHost, leaderboardPort));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            leaderboardServer.stop();
+            streams.close();
+        }));
 
         System.out.printf("Starting Sales Aggregator | input: %s, %s, %s | valid -> %s | invalid -> %s%n",
             TOPIC_RAW_CSV, TOPIC_RAW_SOAP, TOPIC_RAW_POSTGRES, OUTPUT_TOPIC, DLQ_TOPIC);
         streams.start();
+        leaderboardServer.start();
     }
 
     static String addSourceMetadata(String json, String source) {
@@ -0,0 +1,94 @@
+package com.electromart;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyDescription;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.WindowStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LeaderboardsTest {
+
+    @Test
+    void windowStoresRankCitiesAndSalesmenBySaleTimestamp() {
+        StreamsBuilder builder = new StreamsBuilder();
+        Leaderboards.build(builder.stream("sales"), Duration.ofMinutes(10));
+
+        try (TopologyTestDriver driver = new TopologyTestDriver(builder.build(), props())) {
+            TestInputTopic<String, String> input = driver.createInputTopic(
+                "sales", new StringSerializer(), new StringSerializer()
+            );
+            input.pipeInput("1", sale("1", "Recife", "Ana", 100.0, "2026-03-13T10:05:00Z"));
+            input.pipeInput("2", sale("2", "Fortaleza", "Bruno", 300.0, "2026-03-13T10:20:00Z"));
+            input.pipeInput("3", sale("3", "Recife", "Ana", 250.0, "2026-03-13T10:40:00Z"));
+            input.pipeInput("4", sale("4", "Recife", "Bruno", 999.0, "2026-03-13T11:10:00Z"));
+
+            WindowStore<String, Double> hourlyCities = driver.getWindowStore(
+                Leaderboards.storeName(Leaderboards.Dimension.CITY, Leaderboards.Granularity.HOURLY)
+            );
+            List<Leaderboards.Entry> top = Leaderboards.topN(hourlyCities, Instant.parse("2026-03-13T10:00:00Z"), 10);
+            assertEquals(List.of(
+                new Leaderboards.Entry("Recife", 350.0),
+                new Leaderboards.Entry("Fortaleza", 300.0)
+            ), top);
+
+            WindowStore<String, Double> dailySalesmen = driver.getWindowStore(
+                Leaderboards.storeName(Leaderboards.Dimension.SALESMAN, Leaderboards.Granularity.DAILY)
+            );
+            List<Leaderboards.Entry> daily = Leaderboards.topN(dailySalesmen, Instant.parse("2026-03-13T00:00:00Z"), 1);
+            assertEquals(List.of(new Leaderboards.Entry("Bruno", 1299.0)), daily);
+        }
+    }
+
+    @Test
+    void eachDimensionIsRepartitionedOnceForBothGranularities() {
+        StreamsBuilder builder = new StreamsBuilder();
+        Leaderboards.build(builder.stream("sales"), Duration.ofMinutes(10));
+
+        Set<String> repartitionTopics = new TreeSet<>();
+        for (TopologyDescription.Subtopology subtopology : builder.build().describe().subtopologies()) {
+            for (TopologyDescription.Node node : subtopology.nodes()) {
+                if (node instanceof TopologyDescription.Sink sink && sink.topic().endsWith("-repartition")) {
+                    repartitionTopics.add(sink.topic());
+                }
+            }
+        }
+
+        assertEquals(Set.of("leaderboard-city-revenue-repartition", "leaderboard-salesman-revenue-repartition"), repartitionTopics);
+    }
+
+    @Test
+    void windowStartAlignsToGranularity() {
+        Instant at = Instant.parse("2026-03-13T10:42:17Z");
+
+        assertEquals(Instant.parse("2026-03-13T10:00:00Z"), Leaderboards.Granularity.HOURLY.windowStart(at));
+        assertEquals(Instant.parse("2026-03-13T00:00:00Z"), Leaderboards.Granularity.DAILY.windowStart(at));
+    }
+
+    private static Properties props() {
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "leaderboards-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        return props;
+    }
+
+    private static String sale(String id, String city, String salesman, double amount, String timestamp) {
+        return """
+            {"sale_id":"%s","source":"csv","city":"%s","salesman_name":"%s","total_amount":%s,"sale_timestamp":"%s"}
+            """.formatted(id, city, salesman, amount, timestamp);
+    }
+}
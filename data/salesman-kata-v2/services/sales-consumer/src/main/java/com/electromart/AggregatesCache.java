@@ -0,0 +1,151 @@
+package com.electromart;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public final class AggregatesCache {
+
+    private static final AttributeKey<String> ENDPOINT = AttributeKey.stringKey("endpoint");
+
+    public record Key(String endpoint, String from, String to, int limit, List<String> filters) {
+
+        public Key(String endpoint, String from, String to, int limit) {
+            this(endpoint, from, to, limit, List.of());
+        }
+    }
+
+    @FunctionalInterface
+    public interface Loader {
+        AggregateResult load() throws Exception;
+    }
+
+    private record Entry(CompletableFuture<AggregateResult> value, Instant expiresAt) {
+
+        boolean freshAt(Instant now) {
+            return now.isBefore(expiresAt);
+        }
+    }
+
+    private final Duration ttl;
+    private final Duration refreshInterval;
+    private final int maxEntries;
+    private final Duration loadTimeout;
+    private final Clock clock;
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final LongCounter hits;
+    private final LongCounter misses;
+
+    public AggregatesCache(Duration ttl, Duration refreshInterval, int maxEntries, Clock clock) {
+        this(ttl, refreshInterval, maxEntries, Duration.ofSeconds(30), clock);
+    }
+
+    public AggregatesCache(Duration ttl, Duration refreshInterval, int maxEntries, Duration loadTimeout, Clock clock) {
+        this.ttl = ttl;
+        this.refreshInterval = refreshInterval;
+        this.maxEntries = maxEntries;
+        this.loadTimeout = loadTimeout;
+        this.clock = clock;
+
+        Meter meter = GlobalOpenTelemetry.getMeter("sales-consumer");
+        this.hits = meter
+            .counterBuilder("api.cache.hits")
+            .setDescription("Aggregate API lookups served from the in-process cache, including coalesced in-flight loads")
+            .build();
+        this.misses = meter
+            .counterBuilder("api.cache.misses")
+            .setDescription("Aggregate API lookups that had to query TimescaleDB")
+            .build();
+    }
+
+    public static AggregatesCache fromEnv() {
+        return new AggregatesCache(
+            Duration.ofSeconds(Long.parseLong(Env.get("AGGREGATES_CACHE_TTL_SECONDS", "300"))),
+            Duration.ofSeconds(Long.parseLong(Env.get("AGGREGATES_REFRESH_INTERVAL_SECONDS", "300"))),
+            Integer.parseInt(Env.get("AGGREGATES_CACHE_MAX_ENTRIES", "1000")),
+            Duration.ofSeconds(Long.parseLong(Env.get("AGGREGATES_LOAD_TIMEOUT_SECONDS", "30"))),
+            Clock.systemUTC()
+        );
+    }
+
+    public AggregateResult get(Key key, Loader loader) throws Exception {
+        Attributes attributes = Attributes.of(ENDPOINT, key.endpoint());
+        if (ttl.isZero()) {
+            misses.add(1, attributes);
+            return loader.load();
+        }
+
+        Instant now = clock.instant();
+        Entry candidate = new Entry(new CompletableFuture<>(), expiry(now));
+        Entry winner = entries.compute(key, (k, existing) -> existing != null && existing.freshAt(now) ? existing : candidate);
+
+        if (winner != candidate) {
+            hits.add(1, attributes);
+            return await(winner.value());
+        }
+
+        misses.add(1, attributes);
+        evictIfFull(now);
+        try {
+            AggregateResult result = loader.load();
+            candidate.value().complete(result);
+            return result;
+        } catch (Throwable t) {
+            entries.remove(key, candidate);
+            candidate.value().completeExceptionally(t);
+            throw t;
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private Instant expiry(Instant now) {
+        Instant byTtl = now.plus(ttl);
+        if (refreshInterval.isZero()) {
+            return byTtl;
+        }
+
+        long intervalMs = refreshInterval.toMillis();
+        long nextRefresh = (Math.floorDiv(now.toEpochMilli(), intervalMs) + 1) * intervalMs;
+        Instant byRefresh = Instant.ofEpochMilli(nextRefresh);
+        return byRefresh.isBefore(byTtl) ? byRefresh : byTtl;
+    }
+
+    private void evictIfFull(Instant now) {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+
+        entries.entrySet().removeIf(entry -> entry.getValue().value().isDone() && !entry.getValue().freshAt(now));
+        if (entries.size() > maxEntries) {
+            entries.entrySet().removeIf(entry -> entry.getValue().value().isDone());
+        }
+    }
+
+    private AggregateResult await(CompletableFuture<AggregateResult> future) throws Exception {
+        try {
+            return future.get(loadTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ApiException(503, "Aggregate query is still running, retry later");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
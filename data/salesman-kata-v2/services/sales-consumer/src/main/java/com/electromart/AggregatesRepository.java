@@ -3,12 +3,11 @@ package com.electromart;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
 public final class AggregatesRepository implements AggregatesService {
 
@@ -26,10 +25,13 @@ public final class AggregatesRepository implements AggregatesService {
 
     @Override
     public AggregateResult queryTopCities(Connection conn, String from, String to, int limit) throws SQLException {
-        List<Object> params = new ArrayList<>();
-        String filter = buildTimeFilter(from, to, params);
+        if (from != null || to != null) {
+            List<Object> params = new ArrayList<>();
+            String segments = buildRollupSegments("top_cities", "city, region", from, to, List.of(), params);
+            if (segments == null) {
+                return new AggregateResult("range", List.of());
+            }
 
-        if (!filter.isBlank()) {
             params.add(limit);
             String sql = """
                 SELECT
@@ -38,14 +40,13 @@ public final class AggregatesRepository implements AggregatesService {
                   SUM(total_revenue) AS total_revenue,
                   SUM(total_quantity) AS total_quantity,
                   SUM(total_sales) AS total_sales,
-                  MIN(bucket) AS first_bucket,
-                  MAX(bucket) AS last_bucket
-                FROM top_cities
-                %s
+                  MIN(first_hour) AS first_bucket,
+                  MAX(last_hour) AS last_bucket
+                FROM (%s) segments
                 GROUP BY city
                 ORDER BY total_revenue DESC, city ASC
                 LIMIT ?
-                """.formatted(filter);
+                """.formatted(segments);
             return new AggregateResult("range", query(conn, sql, params));
         }
 
@@ -71,10 +72,14 @@ public final class AggregatesRepository implements AggregatesService {
 
     @Override
     public AggregateResult queryTopSalesmen(Connection conn, String from, String to, int limit) throws SQLException {
-        List<Object> params = new ArrayList<>();
-        String filter = buildTimeFilter(from, to, params);
+        if (from != null || to != null) {
+            List<Object> params = new ArrayList<>();
+            String segments = buildRollupSegments(
+                "top_salesmen", "salesman_name, salesman_email, region", from, to, List.of(), params);
+            if (segments == null) {
+                return new AggregateResult("range", List.of());
+            }
 
-        if (!filter.isBlank()) {
             params.add(limit);
             String sql = """
                 SELECT
@@ -84,14 +89,13 @@ public final class AggregatesRepository implements AggregatesService {
                   SUM(total_revenue) AS total_revenue,
                   SUM(total_quantity) AS total_quantity,
                   SUM(total_sales) AS total_sales,
-                  MIN(bucket) AS first_bucket,
-                  MAX(bucket) AS last_bucket
-                FROM top_salesmen
-                %s
+                  MIN(first_hour) AS first_bucket,
+                  MAX(last_hour) AS last_bucket
+                FROM (%s) segments
                 GROUP BY salesman_name, salesman_email
                 ORDER BY total_revenue DESC, salesman_name ASC
                 LIMIT ?
-                """.formatted(filter);
+                """.formatted(segments);
             return new AggregateResult("range", query(conn, sql, params));
         }
 
@@ -116,51 +120,144 @@ public final class AggregatesRepository implements AggregatesService {
         return new AggregateResult("latest", query(conn, sql, List.of(limit)));
     }
 
-    private static String buildTimeFilter(String from, String to, List<Object> params) {
-        List<String> clauses = new ArrayList<>();
+    @Override
+    public AggregateResult queryTopProducts(
+        Connection conn,
+        String from,
+        String to,
+        String category,
+        String brand,
+        int limit
+    ) throws SQLException {
+        List<ColumnFilter> filters = new ArrayList<>();
+        if (category != null) {
+            filters.add(new ColumnFilter("category = ?", category));
+        }
+        if (brand != null) {
+            filters.add(new ColumnFilter("brand = ?", brand));
+        }
+
+        if (from != null || to != null) {
+            List<Object> params = new ArrayList<>();
+            String segments = buildRollupSegments(
+                "top_products", "product_name, product_code, category, brand", from, to, filters, params);
+            if (segments == null) {
+                return new AggregateResult("range", List.of());
+            }
+
+            params.add(limit);
+            String sql = """
+                SELECT
+                  product_name,
+                  product_code,
+                  MAX(category) AS category,
+                  MAX(brand) AS brand,
+                  SUM(total_revenue) AS total_revenue,
+                  SUM(total_quantity) AS total_quantity,
+                  SUM(total_sales) AS total_sales,
+                  MIN(first_hour) AS first_bucket,
+                  MAX(last_hour) AS last_bucket
+                FROM (%s) segments
+                GROUP BY product_name, product_code
+                ORDER BY total_revenue DESC, product_name ASC
+                LIMIT ?
+                """.formatted(segments);
+            return new AggregateResult("range", query(conn, sql, params));
+        }
+
+        List<Object> params = new ArrayList<>();
+        String filter = filters.isEmpty() ? "" : "WHERE " + joinFilters(filters, params);
+        params.add(limit);
+        String sql = """
+            WITH filtered AS (
+              SELECT *
+              FROM top_products
+              %s
+            ),
+            latest_bucket AS (
+              SELECT MAX(bucket) AS bucket
+              FROM filtered
+            )
+            SELECT
+              tp.bucket,
+              tp.product_name,
+              tp.product_code,
+              tp.category,
+              tp.brand,
+              tp.total_revenue,
+              tp.total_quantity,
+              tp.total_sales
+            FROM filtered tp
+            JOIN latest_bucket lb ON tp.bucket = lb.bucket
+            ORDER BY tp.total_revenue DESC, tp.product_name ASC
+            LIMIT ?
+            """.formatted(filter);
+        return new AggregateResult("latest", query(conn, sql, params));
+    }
 
-        if (from != null) {
-            params.add(from);
-            clauses.add("bucket >= ?");
+    private static String joinFilters(List<ColumnFilter> filters, List<Object> params) {
+        List<String> clauses = new ArrayList<>();
+        for (ColumnFilter filter : filters) {
+            clauses.add(filter.clause());
+            params.add(filter.value());
         }
+        return String.join(" AND ", clauses);
+    }
 
-        if (to != null) {
-            params.add(to);
-            clauses.add("bucket <= ?");
+    private static String buildRollupSegments(
+        String hourlyView,
+        String dimensions,
+        String from,
+        String to,
+        List<ColumnFilter> filters,
+        List<Object> params
+    ) {
+        List<RollupPlan.Segment> plan = RollupPlan.plan(
+            from == null ? null : Instant.parse(from),
+            to == null ? null : Instant.parse(to),
+            Instant.now()
+        );
+        if (plan.isEmpty()) {
+            return null;
         }
 
-        if (clauses.isEmpty()) {
-            return "";
+        List<String> selects = new ArrayList<>();
+        for (RollupPlan.Segment segment : plan) {
+            String hours = segment.granularity() == RollupPlan.Granularity.HOURLY
+                ? "bucket AS first_hour, bucket AS last_hour"
+                : "first_hour, last_hour";
+            List<String> clauses = new ArrayList<>();
+            if (segment.from() != null) {
+                params.add(Timestamp.from(segment.from()));
+                clauses.add("bucket >= ?");
+            }
+            if (segment.to() != null) {
+                params.add(Timestamp.from(segment.to()));
+                clauses.add("bucket < ?");
+            }
+            if (!filters.isEmpty()) {
+                clauses.add(joinFilters(filters, params));
+            }
+
+            selects.add("SELECT %s, total_revenue, total_quantity, total_sales, %s FROM %s WHERE %s".formatted(
+                dimensions, hours, segment.granularity().view(hourlyView), String.join(" AND ", clauses)));
         }
 
-        return "WHERE " + String.join(" AND ", clauses);
+        return String.join("\nUNION ALL\n", selects);
     }
 
-    private static List<Map<String, Object>> query(Connection conn, String sql, List<Object> params) throws SQLException {
+    private record ColumnFilter(String clause, Object value) {
+    }
+
+    private static ResultRows query(Connection conn, String sql, List<Object> params) throws SQLException {
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             for (int i = 0; i < params.size(); i++) {
                 stmt.setObject(i + 1, params.get(i));
             }
 
             try (ResultSet rs = stmt.executeQuery()) {
-                return toRows(rs);
-            }
-        }
-    }
-
-    private static List<Map<String, Object>> toRows(ResultSet rs) throws SQLException {
-        List<Map<String, Object>> rows = new ArrayList<>();
-        ResultSetMetaData meta = rs.getMetaData();
-        int columns = meta.getColumnCount();
-
-        while (rs.next()) {
-            Map<String, Object> row = new LinkedHashMap<>();
-            for (int i = 1; i <= columns; i++) {
-                row.put(meta.getColumnLabel(i), rs.getObject(i));
+                return ResultRows.read(rs);
             }
-            rows.add(row);
         }
-
-        return rows;
     }
 }
@@ -7,4 +7,5 @@ public interface AggregatesService {
     void ping(Connection conn) throws SQLException;
     AggregateResult queryTopCities(Connection conn, String from, String to, int limit) throws SQLException;
     AggregateResult queryTopSalesmen(Connection conn, String from, String to, int limit) throws SQLException;
+    AggregateResult queryTopProducts(Connection conn, String from, String to, String category, String brand, int limit) throws SQLException;
 }
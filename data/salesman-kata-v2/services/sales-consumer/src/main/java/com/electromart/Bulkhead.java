@@ -0,0 +1,100 @@
+package com.electromart;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongUpDownCounter;
+import io.opentelemetry.api.metrics.Meter;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class Bulkhead {
+
+    private static final AttributeKey<String> ENDPOINT = AttributeKey.stringKey("endpoint");
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Duration queueTimeout;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Attributes attributes;
+    private final LongUpDownCounter inFlightCounter;
+    private final LongUpDownCounter queuedCounter;
+    private final LongCounter rejectedCounter;
+
+    public Bulkhead(String endpoint, int maxConcurrent, int maxQueued, Duration queueTimeout) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.queueTimeout = queueTimeout;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.attributes = Attributes.of(ENDPOINT, endpoint);
+
+        Meter meter = GlobalOpenTelemetry.getMeter("sales-consumer");
+        this.inFlightCounter = meter
+            .upDownCounterBuilder("http.server.requests.inflight")
+            .setDescription("HTTP API requests currently being handled")
+            .build();
+        this.queuedCounter = meter
+            .upDownCounterBuilder("http.server.requests.queued")
+            .setDescription("HTTP API requests waiting for a free slot in their endpoint bulkhead")
+            .build();
+        this.rejectedCounter = meter
+            .counterBuilder("http.server.requests.rejected")
+            .setDescription("HTTP API requests shed with 503 because their endpoint bulkhead was full")
+            .build();
+    }
+
+    public static Bulkhead fromEnv(String endpoint) {
+        String prefix = "HTTP_" + endpoint.toUpperCase(Locale.ROOT).replace('-', '_') + "_";
+        int maxConcurrent = Integer.parseInt(Env.get(prefix + "MAX_CONCURRENT", Env.get("HTTP_MAX_CONCURRENT", "8")));
+        int maxQueued = Integer.parseInt(Env.get(prefix + "MAX_QUEUED", Env.get("HTTP_MAX_QUEUED", "32")));
+        long queueTimeoutMs = Long.parseLong(Env.get("HTTP_QUEUE_TIMEOUT_MS", "1000"));
+
+        return new Bulkhead(endpoint, maxConcurrent, maxQueued, Duration.ofMillis(queueTimeoutMs));
+    }
+
+    public boolean tryEnter() throws InterruptedException {
+        if (permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+            inFlightCounter.add(1, attributes);
+            return true;
+        }
+
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejectedCounter.add(1, attributes);
+            return false;
+        }
+
+        queuedCounter.add(1, attributes);
+        try {
+            if (permits.tryAcquire(queueTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                inFlightCounter.add(1, attributes);
+                return true;
+            }
+        } finally {
+            queued.decrementAndGet();
+            queuedCounter.add(-1, attributes);
+        }
+
+        rejectedCounter.add(1, attributes);
+        return false;
+    }
+
+    public void exit() {
+        inFlightCounter.add(-1, attributes);
+        permits.release();
+    }
+
+    int inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    int queued() {
+        return queued.get();
+    }
+}
@@ -0,0 +1,37 @@
+package com.electromart;
+
+public final class CatchUpMode {
+
+    private final long enterLag;
+    private final long exitLag;
+    private boolean bulk;
+
+    public CatchUpMode(long enterLag, long exitLag) {
+        if (exitLag > enterLag) {
+            throw new IllegalArgumentException("exitLag must not be greater than enterLag");
+        }
+        this.enterLag = enterLag;
+        this.exitLag = exitLag;
+    }
+
+    public static CatchUpMode fromEnv() {
+        long enterLag = Long.parseLong(Env.get("BULK_LOAD_ENTER_LAG", "50000"));
+        long exitLag = Long.parseLong(Env.get("BULK_LOAD_EXIT_LAG", String.valueOf(enterLag / 10)));
+        return new CatchUpMode(enterLag, exitLag);
+    }
+
+    public boolean update(long lag) {
+        if (!bulk && lag >= enterLag) {
+            bulk = true;
+            System.out.printf("Consumer lag %d >= %d, switching to COPY bulk load%n", lag, enterLag);
+        } else if (bulk && lag <= exitLag) {
+            bulk = false;
+            System.out.printf("Consumer lag %d <= %d, switching back to batched inserts%n", lag, exitLag);
+        }
+        return bulk;
+    }
+
+    public boolean isBulk() {
+        return bulk;
+    }
+}
@@ -0,0 +1,249 @@
+package com.electromart;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.metrics.LongHistogram;
+import io.opentelemetry.api.metrics.Meter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class ConnectionPool implements ConnectionProvider, AutoCloseable {
+
+    private static final long VALIDATE_AFTER_IDLE_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final ConnectionProvider factory;
+    private final int maxSize;
+    private final int minIdle;
+    private final Duration acquireTimeout;
+    private final Duration idleTimeout;
+    private final Semaphore permits;
+    private final Deque<IdleConnection> idle = new ArrayDeque<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final ScheduledExecutorService evictor;
+    private final LongHistogram waitTime;
+
+    public ConnectionPool(
+        ConnectionProvider factory,
+        int maxSize,
+        int minIdle,
+        Duration acquireTimeout,
+        Duration idleTimeout
+    ) {
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(minIdle, maxSize);
+        this.acquireTimeout = acquireTimeout;
+        this.idleTimeout = idleTimeout;
+        this.permits = new Semaphore(maxSize, true);
+
+        Meter meter = GlobalOpenTelemetry.getMeter("sales-consumer");
+        this.waitTime = meter
+            .histogramBuilder("db.pool.wait.duration")
+            .setDescription("Time spent waiting to borrow a connection from the API pool")
+            .setUnit("ms")
+            .ofLongs()
+            .build();
+        meter.gaugeBuilder("db.pool.connections.active")
+            .setDescription("Connections currently borrowed from the API pool")
+            .ofLongs()
+            .buildWithCallback(measurement -> measurement.record(activeCount()));
+        meter.gaugeBuilder("db.pool.connections.idle")
+            .setDescription("Open connections waiting in the API pool")
+            .ofLongs()
+            .buildWithCallback(measurement -> measurement.record(idleCount()));
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, idleTimeout.toMillis() / 2);
+        evictor.scheduleAtFixedRate(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public static ConnectionPool fromEnv(DatabaseConfig databaseConfig) {
+        Properties statementCache = new Properties();
+        statementCache.setProperty("prepareThreshold", "1");
+        statementCache.setProperty("preparedStatementCacheQueries", "256");
+        statementCache.setProperty("preparedStatementCacheSizeMiB", "5");
+
+        return new ConnectionPool(
+            () -> Database.connect(databaseConfig, statementCache),
+            Integer.parseInt(Env.get("DB_POOL_MAX_SIZE", "10")),
+            Integer.parseInt(Env.get("DB_POOL_MIN_IDLE", "2")),
+            Duration.ofMillis(Long.parseLong(Env.get("DB_POOL_ACQUIRE_TIMEOUT_MS", "2000"))),
+            Duration.ofMillis(Long.parseLong(Env.get("DB_POOL_IDLE_TIMEOUT_MS", "300000")))
+        );
+    }
+
+    @Override
+    public Connection get() throws SQLException {
+        if (closed.get()) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                    "Timed out after " + acquireTimeout.toMillis() + " ms waiting for a database connection"
+                );
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection");
+        } finally {
+            waitTime.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+
+        try {
+            Connection physical = borrowIdle();
+            if (physical == null) {
+                physical = factory.get();
+            }
+            active.incrementAndGet();
+            return lease(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int activeCount() {
+        return active.get();
+    }
+
+    public int idleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    public int maxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        evictor.shutdownNow();
+        synchronized (idle) {
+            idle.forEach(connection -> Database.closeQuietly(connection.physical()));
+            idle.clear();
+        }
+    }
+
+    void evictIdle() {
+        long now = System.nanoTime();
+        long timeoutNanos = idleTimeout.toNanos();
+
+        synchronized (idle) {
+            Iterator<IdleConnection> oldestFirst = idle.descendingIterator();
+            while (oldestFirst.hasNext() && idle.size() > minIdle) {
+                IdleConnection connection = oldestFirst.next();
+                if (now - connection.idleSinceNanos() < timeoutNanos) {
+                    break;
+                }
+                oldestFirst.remove();
+                Database.closeQuietly(connection.physical());
+            }
+        }
+    }
+
+    private Connection borrowIdle() {
+        while (true) {
+            IdleConnection candidate;
+            synchronized (idle) {
+                candidate = idle.pollFirst();
+            }
+
+            if (candidate == null) {
+                return null;
+            }
+
+            boolean stale = System.nanoTime() - candidate.idleSinceNanos() > VALIDATE_AFTER_IDLE_NANOS;
+            if (!stale || Database.isValid(candidate.physical())) {
+                return candidate.physical();
+            }
+
+            Database.closeQuietly(candidate.physical());
+        }
+    }
+
+    private void release(Connection physical) {
+        active.decrementAndGet();
+
+        try {
+            if (closed.get() || physical.isClosed()) {
+                Database.closeQuietly(physical);
+                return;
+            }
+
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+
+            synchronized (idle) {
+                idle.addFirst(new IdleConnection(physical, System.nanoTime()));
+            }
+        } catch (SQLException e) {
+            Database.closeQuietly(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Connection lease(Connection physical) {
+        AtomicBoolean returned = new AtomicBoolean();
+
+        return (Connection) Proxy.newProxyInstance(
+            ConnectionPool.class.getClassLoader(),
+            new Class[]{Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close" -> {
+                        if (returned.compareAndSet(false, true)) {
+                            release(physical);
+                        }
+                        return null;
+                    }
+                    case "isClosed" -> {
+                        return returned.get() || physical.isClosed();
+                    }
+                    default -> {
+                        if (returned.get()) {
+                            throw new SQLException("Connection has already been returned to the pool");
+                        }
+                        try {
+                            return method.invoke(physical, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                }
+            }
+        );
+    }
+
+    private record IdleConnection(Connection physical, long idleSinceNanos) {
+    }
+}
@@ -3,6 +3,7 @@ package com.electromart;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.Properties;
 
 public final class Database {
 
@@ -24,7 +25,16 @@ public final class Database {
     }
 
     public static Connection connect(DatabaseConfig config) throws SQLException {
-        Connection conn = DriverManager.getConnection(config.jdbcUrl(), config.user(), config.password());
+        return connect(config, new Properties());
+    }
+
+    public static Connection connect(DatabaseConfig config, Properties properties) throws SQLException {
+        Properties info = new Properties();
+        info.putAll(properties);
+        info.setProperty("user", config.user());
+        info.setProperty("password", config.password());
+
+        Connection conn = DriverManager.getConnection(config.jdbcUrl(), info);
         conn.setAutoCommit(true);
         return conn;
     }
@@ -1,7 +1,9 @@
 package com.electromart;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 
 import java.io.IOException;
@@ -10,23 +12,44 @@ import java.net.InetSocketAddress;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class HttpApiServer {
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration STREAM_HEARTBEAT = Duration.ofSeconds(15);
 
     private final DatabaseConfig databaseConfig;
     private final ConnectionProvider connectionProvider;
     private final AggregatesService aggregatesService;
+    private final AggregatesCache aggregatesCache;
+    private final LiveLeaderboard liveLeaderboard;
     private final int port;
+    private final ExecutorService queryExecutor = Executors.newVirtualThreadPerTaskExecutor();
     private HttpServer server;
-
-    public HttpApiServer(DatabaseConfig databaseConfig, int port) {
-        this(databaseConfig, port, () -> Database.connect(databaseConfig), AggregatesRepository.INSTANCE);
+    private ExecutorService requestExecutor;
+    private LeaderboardStream leaderboardStream;
+
+    public HttpApiServer(DatabaseConfig databaseConfig, int port, LiveLeaderboard liveLeaderboard) {
+        this(
+            databaseConfig,
+            port,
+            ConnectionPool.fromEnv(databaseConfig),
+            AggregatesRepository.INSTANCE,
+            AggregatesCache.fromEnv(),
+            liveLeaderboard
+        );
     }
 
     HttpApiServer(
@@ -34,21 +57,52 @@ public class HttpApiServer {
         int port,
         ConnectionProvider connectionProvider,
         AggregatesService aggregatesService
+    ) {
+        this(
+            databaseConfig,
+            port,
+            connectionProvider,
+            aggregatesService,
+            AggregatesCache.fromEnv(),
+            LiveLeaderboard.fromEnv()
+        );
+    }
+
+    HttpApiServer(
+        DatabaseConfig databaseConfig,
+        int port,
+        ConnectionProvider connectionProvider,
+        AggregatesService aggregatesService,
+        AggregatesCache aggregatesCache,
+        LiveLeaderboard liveLeaderboard
     ) {
         this.databaseConfig = databaseConfig;
         this.port = port;
         this.connectionProvider = connectionProvider;
         this.aggregatesService = aggregatesService;
+        this.aggregatesCache = aggregatesCache;
+        this.liveLeaderboard = liveLeaderboard;
     }
 
     public void start() {
         try {
             server = HttpServer.create(new InetSocketAddress(port), 0);
-            server.createContext("/health", this::handleHealth);
-            server.createContext("/api/aggregates/top-sales-per-city", this::handleTopCities);
-            server.createContext("/api/aggregates/top-salesman-country", this::handleTopSalesmen);
-            server.createContext("/api/aggregates/summary", this::handleSummary);
-            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/health", admitted("health", this::handleHealth));
+            server.createContext("/api/aggregates/top-sales-per-city", admitted("top-cities", this::handleTopCities));
+            server.createContext("/api/aggregates/top-salesman-country", admitted("top-salesmen", this::handleTopSalesmen));
+            server.createContext("/api/aggregates/top-products", admitted("top-products", this::handleTopProducts));
+            server.createContext("/api/aggregates/summary", admitted("summary", this::handleSummary));
+            server.createContext("/api/leaderboards/live", admitted("live", this::handleLiveLeaderboard));
+            server.createContext("/api/leaderboards/stream", this::handleLeaderboardStream);
+            int streamLimit = Integer.parseInt(Env.get("SSE_LEADERBOARD_LIMIT", "10"));
+            leaderboardStream = LeaderboardStream.fromEnv(List.of(
+                new LeaderboardStream.Section("topSalesPerCity", "city",
+                    () -> topCities(null, null, streamLimit).rows()),
+                new LeaderboardStream.Section("topSalesmanCountry", "salesman_name",
+                    () -> topSalesmen(null, null, streamLimit).rows())
+            ));
+            requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            server.setExecutor(requestExecutor);
             server.start();
             System.out.printf("HTTP API listening on port %d%n", port);
         } catch (IOException e) {
@@ -61,6 +115,21 @@ public class HttpApiServer {
             server.stop(0);
             server = null;
         }
+
+        if (leaderboardStream != null) {
+            leaderboardStream.close();
+            leaderboardStream = null;
+        }
+
+        if (requestExecutor != null) {
+            requestExecutor.shutdownNow();
+            requestExecutor = null;
+        }
+        queryExecutor.shutdownNow();
+
+        if (connectionProvider instanceof ConnectionPool pool) {
+            pool.close();
+        }
     }
 
     int getPort() {
@@ -71,6 +140,32 @@ public class HttpApiServer {
         return server.getAddress().getPort();
     }
 
+    private HttpHandler admitted(String endpoint, HttpHandler handler) {
+        Bulkhead bulkhead = Bulkhead.fromEnv(endpoint);
+
+        return exchange -> {
+            boolean entered;
+            try {
+                entered = bulkhead.tryEnter();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                entered = false;
+            }
+
+            if (!entered) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                writeJson(exchange, 503, Map.of("error", "Server busy, retry later"));
+                return;
+            }
+
+            try {
+                handler.handle(exchange);
+            } finally {
+                bulkhead.exit();
+            }
+        };
+    }
+
     private void handleHealth(HttpExchange exchange) throws IOException {
         if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
             writeJson(exchange, 405, Map.of("error", "Method not allowed"));
@@ -95,18 +190,16 @@ public class HttpApiServer {
             return;
         }
 
-        try (Connection conn = connectionProvider.get()) {
+        try {
             QueryParams params = QueryParams.from(exchange);
-            AggregateResult data = aggregatesService.queryTopCities(
-                conn,
-                params.from(),
-                params.to(),
-                params.limitOrDefault("limit", 10)
-            );
+            AggregateResult data = topCities(params.from(), params.to(), params.limitOrDefault("limit", 10));
             Map<String, Object> filters = new LinkedHashMap<>();
             filters.put("from", params.from());
             filters.put("to", params.to());
             filters.put("limit", params.limitOrDefault("limit", 10));
+            if (notModified(exchange, ResponseValidators.of("top-cities", filters, data))) {
+                return;
+            }
 
             writeJson(exchange, 200, Map.of(
                 "source", "top_cities",
@@ -126,18 +219,16 @@ public class HttpApiServer {
             return;
         }
 
-        try (Connection conn = connectionProvider.get()) {
+        try {
             QueryParams params = QueryParams.from(exchange);
-            AggregateResult data = aggregatesService.queryTopSalesmen(
-                conn,
-                params.from(),
-                params.to(),
-                params.limitOrDefault("limit", 10)
-            );
+            AggregateResult data = topSalesmen(params.from(), params.to(), params.limitOrDefault("limit", 10));
             Map<String, Object> filters = new LinkedHashMap<>();
             filters.put("from", params.from());
             filters.put("to", params.to());
             filters.put("limit", params.limitOrDefault("limit", 10));
+            if (notModified(exchange, ResponseValidators.of("top-salesmen", filters, data))) {
+                return;
+            }
 
             writeJson(exchange, 200, Map.of(
                 "source", "top_salesmen",
@@ -151,37 +242,85 @@ public class HttpApiServer {
         }
     }
 
+    private void handleTopProducts(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            writeJson(exchange, 405, Map.of("error", "Method not allowed"));
+            return;
+        }
+
+        try {
+            QueryParams params = QueryParams.from(exchange);
+            String category = params.valueOrDefault("category", null);
+            String brand = params.valueOrDefault("brand", null);
+            int limit = params.limitOrDefault("limit", 10);
+            AggregateResult data = topProducts(params.from(), params.to(), category, brand, limit);
+            Map<String, Object> filters = new LinkedHashMap<>();
+            filters.put("from", params.from());
+            filters.put("to", params.to());
+            filters.put("category", category);
+            filters.put("brand", brand);
+            filters.put("limit", limit);
+            if (notModified(exchange, ResponseValidators.of("top-products", filters, data))) {
+                return;
+            }
+
+            writeJson(exchange, 200, Map.of(
+                "source", "top_products",
+                "mode", data.mode(),
+                "filters", filters,
+                "count", data.rows().size(),
+                "items", data.rows()
+            ));
+        } catch (Exception e) {
+            handleError(exchange, e);
+        }
+    }
+
     private void handleSummary(HttpExchange exchange) throws IOException {
         if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
             writeJson(exchange, 405, Map.of("error", "Method not allowed"));
             return;
         }
 
-        try (Connection conn = connectionProvider.get()) {
+        try {
             QueryParams params = QueryParams.from(exchange);
             int cityLimit = params.limitOrDefault("cityLimit", 5);
             int salesmanLimit = params.limitOrDefault("salesmanLimit", 5);
-            AggregateResult cities = aggregatesService.queryTopCities(conn, params.from(), params.to(), cityLimit);
-            AggregateResult salesmen = aggregatesService.queryTopSalesmen(conn, params.from(), params.to(), salesmanLimit);
+            Future<TimedResult> citiesQuery = submitTimed(() -> topCities(params.from(), params.to(), cityLimit));
+            Future<TimedResult> salesmenQuery = submitTimed(() -> topSalesmen(params.from(), params.to(), salesmanLimit));
+            TimedResult cities;
+            TimedResult salesmen;
+            try {
+                cities = await(citiesQuery);
+                salesmen = await(salesmenQuery);
+            } finally {
+                citiesQuery.cancel(true);
+                salesmenQuery.cancel(true);
+            }
             Map<String, Object> filters = new LinkedHashMap<>();
             filters.put("from", params.from());
             filters.put("to", params.to());
             filters.put("cityLimit", cityLimit);
             filters.put("salesmanLimit", salesmanLimit);
+            exchange.getResponseHeaders().set("Server-Timing", String.format(Locale.ROOT,
+                "top-cities;dur=%.1f, top-salesmen;dur=%.1f", cities.millis(), salesmen.millis()));
+            if (notModified(exchange, ResponseValidators.of("summary", filters, cities.result(), salesmen.result()))) {
+                return;
+            }
 
             Map<String, Object> response = new LinkedHashMap<>();
             response.put("filters", filters);
             response.put("topSalesPerCity", Map.of(
                 "source", "top_cities",
-                "mode", cities.mode(),
-                "count", cities.rows().size(),
-                "items", cities.rows()
+                "mode", cities.result().mode(),
+                "count", cities.result().rows().size(),
+                "items", cities.result().rows()
             ));
             response.put("topSalesmanCountry", Map.of(
                 "source", "top_salesmen",
-                "mode", salesmen.mode(),
-                "count", salesmen.rows().size(),
-                "items", salesmen.rows()
+                "mode", salesmen.result().mode(),
+                "count", salesmen.result().rows().size(),
+                "items", salesmen.result().rows()
             ));
 
             writeJson(exchange, 200, response);
@@ -190,26 +329,157 @@ public class HttpApiServer {
         }
     }
 
+    private void handleLiveLeaderboard(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            writeJson(exchange, 405, Map.of("error", "Method not allowed"));
+            return;
+        }
+
+        try {
+            QueryParams params = QueryParams.from(exchange);
+            LiveLeaderboard.Dimension dimension = LiveLeaderboard.Dimension.parse(params.valueOrDefault("dimension", "city"));
+            Duration window = params.window("window", Duration.ofHours(1), liveLeaderboard.horizon());
+            int limit = params.limitOrDefault("limit", 10);
+            List<Map<String, Object>> rows = liveLeaderboard.top(dimension, window, limit);
+
+            Map<String, Object> filters = new LinkedHashMap<>();
+            filters.put("dimension", dimension.name().toLowerCase(Locale.ROOT));
+            filters.put("window", window.toString());
+            filters.put("limit", limit);
+
+            writeJson(exchange, 200, Map.of(
+                "source", "live",
+                "filters", filters,
+                "count", rows.size(),
+                "items", rows
+            ));
+        } catch (Exception e) {
+            handleError(exchange, e);
+        }
+    }
+
+    private void handleLeaderboardStream(HttpExchange exchange) throws IOException {
+        if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            writeJson(exchange, 405, Map.of("error", "Method not allowed"));
+            return;
+        }
+
+        LeaderboardStream stream = leaderboardStream;
+        LeaderboardStream.Subscriber subscriber = stream == null ? null : stream.subscribe();
+        if (subscriber == null) {
+            exchange.getResponseHeaders().set("Retry-After", "5");
+            writeJson(exchange, 503, Map.of("error", "Too many stream subscribers, retry later"));
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+
+        try (OutputStream output = exchange.getResponseBody()) {
+            while (true) {
+                String event = subscriber.next(STREAM_HEARTBEAT);
+                output.write((event == null ? ": keepalive\n\n" : event).getBytes(StandardCharsets.UTF_8));
+                output.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException clientDisconnected) {
+            exchange.close();
+        } finally {
+            stream.unsubscribe(subscriber);
+        }
+    }
+
+    private AggregateResult topCities(String from, String to, int limit) throws Exception {
+        return aggregatesCache.get(new AggregatesCache.Key("top-cities", from, to, limit), () -> {
+            try (Connection conn = connectionProvider.get()) {
+                return aggregatesService.queryTopCities(conn, from, to, limit);
+            }
+        });
+    }
+
+    private AggregateResult topSalesmen(String from, String to, int limit) throws Exception {
+        return aggregatesCache.get(new AggregatesCache.Key("top-salesmen", from, to, limit), () -> {
+            try (Connection conn = connectionProvider.get()) {
+                return aggregatesService.queryTopSalesmen(conn, from, to, limit);
+            }
+        });
+    }
+
+    private Future<TimedResult> submitTimed(AggregatesCache.Loader query) {
+        return queryExecutor.submit(() -> {
+            long start = System.nanoTime();
+            AggregateResult result = query.load();
+            return new TimedResult(result, (System.nanoTime() - start) / 1_000_000.0);
+        });
+    }
+
+    private static TimedResult await(Future<TimedResult> query) throws Exception {
+        try {
+            return query.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private AggregateResult topProducts(String from, String to, String category, String brand, int limit) throws Exception {
+        AggregatesCache.Key key = new AggregatesCache.Key("top-products", from, to, limit, Arrays.asList(category, brand));
+        return aggregatesCache.get(key, () -> {
+            try (Connection conn = connectionProvider.get()) {
+                return aggregatesService.queryTopProducts(conn, from, to, category, brand, limit);
+            }
+        });
+    }
+
     private void handleError(HttpExchange exchange, Exception error) throws IOException {
         if (error instanceof ApiException apiException) {
             writeJson(exchange, apiException.statusCode(), Map.of("error", apiException.getMessage()));
             return;
         }
 
+        if (error instanceof SQLTransientConnectionException) {
+            writeJson(exchange, 503, Map.of("error", "Database busy, retry later"));
+            return;
+        }
+
         error.printStackTrace(System.err);
         writeJson(exchange, 500, Map.of("error", "Internal server error"));
     }
 
+    private static boolean notModified(HttpExchange exchange, ResponseValidators validators) throws IOException {
+        validators.apply(exchange.getResponseHeaders());
+        if (!validators.notModified(exchange.getRequestHeaders())) {
+            return false;
+        }
+
+        exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+        return true;
+    }
+
     private void writeJson(HttpExchange exchange, int statusCode, Object payload) throws IOException {
-        byte[] response = MAPPER.writeValueAsBytes(payload);
+        String encoding = ContentEncoding.negotiate(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
         exchange.getResponseHeaders().set("Content-Type", "application/json");
-        exchange.sendResponseHeaders(statusCode, response.length);
+        exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+        if (encoding != null) {
+            exchange.getResponseHeaders().set("Content-Encoding", encoding);
+        }
+        exchange.sendResponseHeaders(statusCode, 0);
 
-        try (OutputStream output = exchange.getResponseBody()) {
-            output.write(response);
+        try (OutputStream output = ContentEncoding.wrap(encoding, exchange.getResponseBody());
+             JsonGenerator generator = MAPPER.getFactory().createGenerator(output)) {
+            MAPPER.writeValue(generator, payload);
         }
     }
 
+    private record TimedResult(AggregateResult result, double millis) {
+    }
+
     private record QueryParams(Map<String, String> values) {
 
         static QueryParams from(HttpExchange exchange) {
@@ -244,6 +514,33 @@ public class HttpApiServer {
             return parseLimit(values.get(key), fallback, 100);
         }
 
+        String valueOrDefault(String key, String fallback) {
+            String value = values.get(key);
+            return value == null || value.isBlank() ? fallback : value;
+        }
+
+        Duration window(String key, Duration fallback, Duration max) {
+            String value = values.get(key);
+            if (value == null || value.isBlank()) {
+                return fallback;
+            }
+
+            try {
+                long amount = Long.parseLong(value.substring(0, value.length() - 1));
+                Duration parsed = switch (value.charAt(value.length() - 1)) {
+                    case 'm' -> Duration.ofMinutes(amount);
+                    case 'h' -> Duration.ofHours(amount);
+                    default -> throw new NumberFormatException(value);
+                };
+                if (parsed.isNegative() || parsed.isZero()) {
+                    throw new NumberFormatException(value);
+                }
+                return parsed.compareTo(max) > 0 ? max : parsed;
+            } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+                throw new ApiException(400, "Invalid '" + key + "'. Use minutes or hours, e.g. 15m or 6h.");
+            }
+        }
+
         private static String decode(String value) {
             return URLDecoder.decode(value, StandardCharsets.UTF_8);
         }
@@ -0,0 +1,72 @@
+package com.electromart;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+
+import java.sql.Connection;
+import java.util.List;
+
+final class JdbcPartitionWriter implements PartitionWorker.Writer {
+
+    private final TopicPartition partition;
+    private final DatabaseConfig databaseConfig;
+    private Connection conn;
+
+    JdbcPartitionWriter(TopicPartition partition, DatabaseConfig databaseConfig) {
+        this.partition = partition;
+        this.databaseConfig = databaseConfig;
+    }
+
+    @Override
+    public void write(List<ConsumerRecord<String, String>> records, boolean bulk) {
+        if (conn == null) {
+            conn = Database.waitForDatabase(databaseConfig);
+        }
+
+        try {
+            SalesConsumer.recordBatch(writeBatch(records, bulk));
+        } catch (Exception e) {
+            if (!Database.isValid(conn)) {
+                System.err.printf("Connection lost on %s, reconnecting...%n", partition);
+                Database.closeQuietly(conn);
+                conn = Database.waitForDatabase(databaseConfig);
+            }
+
+            try {
+                SalesConsumer.recordBatch(writeBatch(records, bulk));
+            } catch (Exception retryEx) {
+                System.err.printf(
+                    "%s of %d sales on %s failed (%s), falling back to per-record inserts%n",
+                    bulk ? "COPY bulk load" : "Batch insert", records.size(), partition, retryEx.getMessage()
+                );
+                insertOneByOne(records);
+            }
+        }
+    }
+
+    private List<SalesWriteResult> writeBatch(List<ConsumerRecord<String, String>> records, boolean bulk) throws Exception {
+        return bulk ? SalesWriter.copyBatch(conn, records) : SalesWriter.insertBatch(conn, records);
+    }
+
+    private void insertOneByOne(List<ConsumerRecord<String, String>> records) {
+        for (ConsumerRecord<String, String> record : records) {
+            if (record.value() == null) {
+                continue;
+            }
+
+            try {
+                SalesConsumer.recordInsert(SalesWriter.insertSale(conn, record.value()));
+            } catch (Exception e) {
+                System.err.printf(
+                    "Failed to insert sale from partition %d offset %d: %s%n",
+                    record.partition(), record.offset(), e.getMessage()
+                );
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        Database.closeQuietly(conn);
+    }
+}
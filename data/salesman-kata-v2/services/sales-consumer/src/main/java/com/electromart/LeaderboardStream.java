@@ -0,0 +1,206 @@
+package com.electromart;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public final class LeaderboardStream implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public record Section(String name, String keyColumn, Loader loader) {
+    }
+
+    @FunctionalInterface
+    public interface Loader {
+        List<Map<String, Object>> load() throws Exception;
+    }
+
+    public static final class Subscriber {
+        private final BlockingQueue<String> events;
+
+        private Subscriber(int bufferSize) {
+            this.events = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        public String next(Duration timeout) throws InterruptedException {
+            return events.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private final List<Section> sections;
+    private final int clientBuffer;
+    private final int maxClients;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService publisher;
+    private Map<String, List<Map<String, Object>>> current;
+    private String currentSnapshot;
+    private long eventId;
+
+    public LeaderboardStream(List<Section> sections, Duration interval, int clientBuffer, int maxClients) {
+        this.sections = List.copyOf(sections);
+        this.clientBuffer = clientBuffer;
+        this.maxClients = maxClients;
+
+        GlobalOpenTelemetry.getMeter("sales-consumer")
+            .gaugeBuilder("sse.subscribers")
+            .setDescription("Clients connected to the leaderboard event stream")
+            .ofLongs()
+            .buildWithCallback(measurement -> measurement.record(subscribers.size()));
+
+        this.publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "leaderboard-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(100, interval.toMillis());
+        publisher.scheduleWithFixedDelay(this::publish, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public static LeaderboardStream fromEnv(List<Section> sections) {
+        return new LeaderboardStream(
+            sections,
+            Duration.ofMillis(Long.parseLong(Env.get("SSE_PUSH_INTERVAL_MS", "2000"))),
+            Integer.parseInt(Env.get("SSE_CLIENT_BUFFER", "16")),
+            Integer.parseInt(Env.get("SSE_MAX_CLIENTS", "10000"))
+        );
+    }
+
+    public synchronized Subscriber subscribe() {
+        if (subscribers.size() >= maxClients) {
+            return null;
+        }
+
+        Subscriber subscriber = new Subscriber(clientBuffer);
+        if (currentSnapshot != null) {
+            subscriber.events.offer(currentSnapshot);
+        }
+        subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    public void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    @Override
+    public void close() {
+        publisher.shutdownNow();
+        subscribers.clear();
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    synchronized void publish() {
+        if (subscribers.isEmpty()) {
+            current = null;
+            currentSnapshot = null;
+            return;
+        }
+
+        Map<String, List<Map<String, Object>>> next = new LinkedHashMap<>();
+        for (Section section : sections) {
+            try {
+                next.put(section.name(), section.loader().load());
+            } catch (Exception e) {
+                System.err.printf("Leaderboard stream failed to load %s: %s%n", section.name(), e.getMessage());
+                return;
+            }
+        }
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        if (current != null) {
+            for (Section section : sections) {
+                Map<String, Object> delta = diff(section.keyColumn(), current.get(section.name()), next.get(section.name()));
+                if (delta != null) {
+                    changes.put(section.name(), delta);
+                }
+            }
+            if (changes.isEmpty()) {
+                return;
+            }
+        }
+
+        eventId++;
+        String snapshot = event("snapshot", eventId, ranked(next));
+        String event = current == null ? snapshot : event("delta", eventId, changes);
+        current = next;
+        currentSnapshot = snapshot;
+
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.events.offer(event)) {
+                subscriber.events.clear();
+                subscriber.events.offer(snapshot);
+            }
+        }
+    }
+
+    static Map<String, Object> diff(String keyColumn, List<Map<String, Object>> before, List<Map<String, Object>> after) {
+        Map<Object, Integer> previousRanks = new HashMap<>();
+        for (int i = 0; i < before.size(); i++) {
+            previousRanks.put(before.get(i).get(keyColumn), i);
+        }
+
+        List<Map<String, Object>> upserted = new ArrayList<>();
+        for (int i = 0; i < after.size(); i++) {
+            Map<String, Object> row = after.get(i);
+            Integer previous = previousRanks.remove(row.get(keyColumn));
+            if (previous == null || previous != i || !Objects.equals(before.get(previous), row)) {
+                upserted.add(withRank(row, i));
+            }
+        }
+
+        if (upserted.isEmpty() && previousRanks.isEmpty()) {
+            return null;
+        }
+
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("upserted", upserted);
+        delta.put("removed", new ArrayList<>(previousRanks.keySet()));
+        return delta;
+    }
+
+    private static Map<String, Object> ranked(Map<String, List<Map<String, Object>>> snapshot) {
+        Map<String, Object> ranked = new LinkedHashMap<>();
+        snapshot.forEach((name, rows) -> {
+            List<Map<String, Object>> items = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                items.add(withRank(rows.get(i), i));
+            }
+            ranked.put(name, items);
+        });
+        return ranked;
+    }
+
+    private static Map<String, Object> withRank(Map<String, Object> row, int index) {
+        Map<String, Object> ranked = new LinkedHashMap<>();
+        ranked.put("rank", index + 1);
+        ranked.putAll(row);
+        return ranked;
+    }
+
+    private static String event(String type, long id, Object payload) {
+        try {
+            return "id: " + id + "\nevent: " + type + "\ndata: " + MAPPER.writeValueAsString(payload) + "\n\n";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize leaderboard event", e);
+        }
+    }
+}
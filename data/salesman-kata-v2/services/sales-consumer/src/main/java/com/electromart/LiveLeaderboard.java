@@ -0,0 +1,250 @@
+package com.electromart;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class LiveLeaderboard {
+
+    public enum Dimension {
+        CITY("city"),
+        SALESMAN("salesman_name"),
+        PRODUCT("product_name");
+
+        private final String column;
+
+        Dimension(String column) {
+            this.column = column;
+        }
+
+        public String column() {
+            return column;
+        }
+
+        public static Dimension parse(String value) {
+            try {
+                return Dimension.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ApiException(400, "Invalid 'dimension'. Use city, salesman or product.");
+            }
+        }
+    }
+
+    private static final String REBUILD_SQL = """
+        SELECT
+          time_bucket('1 minute', sale_timestamp) AS minute,
+          city,
+          salesman_name,
+          product_name,
+          SUM(total_amount) AS total_revenue,
+          SUM(quantity) AS total_quantity,
+          COUNT(*) AS total_sales
+        FROM sales
+        WHERE sale_timestamp >= ?
+        GROUP BY minute, city, salesman_name, product_name
+        """;
+
+    private final int slots;
+    private final Clock clock;
+    private final Map<Dimension, ConcurrentHashMap<String, Series>> series = new EnumMap<>(Dimension.class);
+    private volatile long prunedMinute = Long.MIN_VALUE;
+
+    public LiveLeaderboard(Duration horizon, Clock clock) {
+        this.slots = (int) Math.max(1, horizon.toMinutes());
+        this.clock = clock;
+        for (Dimension dimension : Dimension.values()) {
+            series.put(dimension, new ConcurrentHashMap<>());
+        }
+    }
+
+    public static LiveLeaderboard fromEnv() {
+        return new LiveLeaderboard(
+            Duration.ofHours(Long.parseLong(Env.get("LIVE_LEADERBOARD_HOURS", "24"))),
+            Clock.systemUTC()
+        );
+    }
+
+    public Duration horizon() {
+        return Duration.ofMinutes(slots);
+    }
+
+    public Instant horizonStart() {
+        return Instant.ofEpochSecond(oldestMinute(epochMinute(clock.instant())) * 60);
+    }
+
+    public void record(SalesWriteResult sale) {
+        if (sale.saleTimestamp() == null) {
+            return;
+        }
+
+        long minute = epochMinute(sale.saleTimestamp());
+        add(Dimension.CITY, sale.city(), minute, sale.totalAmount(), sale.quantity(), 1);
+        add(Dimension.SALESMAN, sale.salesmanName(), minute, sale.totalAmount(), sale.quantity(), 1);
+        add(Dimension.PRODUCT, sale.productName(), minute, sale.totalAmount(), sale.quantity(), 1);
+
+        long now = epochMinute(clock.instant());
+        if (now > prunedMinute) {
+            prunedMinute = now;
+            for (Dimension dimension : Dimension.values()) {
+                prune(dimension, oldestMinute(now));
+            }
+        }
+    }
+
+    public void rebuild(Connection conn) throws SQLException {
+        Instant since = horizonStart();
+        long rows = 0;
+
+        try (PreparedStatement stmt = conn.prepareStatement(REBUILD_SQL)) {
+            stmt.setTimestamp(1, Timestamp.from(since));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long minute = epochMinute(rs.getTimestamp("minute").toInstant());
+                    double revenue = rs.getDouble("total_revenue");
+                    long quantity = rs.getLong("total_quantity");
+                    long count = rs.getLong("total_sales");
+                    add(Dimension.CITY, rs.getString("city"), minute, revenue, quantity, count);
+                    add(Dimension.SALESMAN, rs.getString("salesman_name"), minute, revenue, quantity, count);
+                    add(Dimension.PRODUCT, rs.getString("product_name"), minute, revenue, quantity, count);
+                    rows++;
+                }
+            }
+        }
+
+        System.out.printf("Live leaderboard rebuilt from %d minute buckets since %s%n", rows, since);
+    }
+
+    public List<Map<String, Object>> top(Dimension dimension, Duration window, int limit) {
+        long now = epochMinute(clock.instant());
+        long from = now - Math.min(Math.max(1, window.toMinutes()), slots) + 1;
+        prune(dimension, oldestMinute(now));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map.Entry<String, Series> entry : series.get(dimension).entrySet()) {
+            Totals totals = entry.getValue().sum(from, now);
+            if (totals.count() == 0) {
+                continue;
+            }
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put(dimension.column(), entry.getKey());
+            row.put("total_revenue", totals.revenue());
+            row.put("total_quantity", totals.quantity());
+            row.put("total_sales", totals.count());
+            rows.add(row);
+        }
+
+        rows.sort(Comparator
+            .comparingDouble((Map<String, Object> row) -> (double) row.get("total_revenue")).reversed()
+            .thenComparing(row -> (String) row.get(dimension.column())));
+        return rows.size() > limit ? new ArrayList<>(rows.subList(0, limit)) : rows;
+    }
+
+    int keys(Dimension dimension) {
+        return series.get(dimension).size();
+    }
+
+    private void add(Dimension dimension, String key, long minute, double revenue, long quantity, long count) {
+        if (key == null || key.isBlank()) {
+            return;
+        }
+
+        long now = epochMinute(clock.instant());
+        if (minute < oldestMinute(now) || minute > now + 1) {
+            return;
+        }
+
+        series.get(dimension).compute(key, (k, existing) -> {
+            Series target = existing == null ? new Series() : existing;
+            target.add(minute, revenue, quantity, count);
+            return target;
+        });
+    }
+
+    private void prune(Dimension dimension, long oldestMinute) {
+        ConcurrentHashMap<String, Series> keys = series.get(dimension);
+        for (String key : keys.keySet()) {
+            keys.computeIfPresent(key, (k, existing) -> existing.evictBefore(oldestMinute) ? null : existing);
+        }
+    }
+
+    private long oldestMinute(long now) {
+        return now - slots + 1;
+    }
+
+    private static long epochMinute(Instant instant) {
+        return Math.floorDiv(instant.getEpochSecond(), 60);
+    }
+
+    private record Totals(double revenue, long quantity, long count) {
+    }
+
+    private static final class Bucket {
+        private double revenue;
+        private long quantity;
+        private long count;
+    }
+
+    private static final class Series {
+        private final NavigableMap<Long, Bucket> minutes = new TreeMap<>();
+        private double revenue;
+        private long quantity;
+        private long count;
+
+        synchronized void add(long minute, double revenue, long quantity, long count) {
+            Bucket bucket = minutes.computeIfAbsent(minute, m -> new Bucket());
+            bucket.revenue += revenue;
+            bucket.quantity += quantity;
+            bucket.count += count;
+            this.revenue += revenue;
+            this.quantity += quantity;
+            this.count += count;
+        }
+
+        synchronized boolean evictBefore(long oldestMinute) {
+            Map<Long, Bucket> expired = minutes.headMap(oldestMinute, false);
+            for (Bucket bucket : expired.values()) {
+                revenue -= bucket.revenue;
+                quantity -= bucket.quantity;
+                count -= bucket.count;
+            }
+            expired.clear();
+            return minutes.isEmpty();
+        }
+
+        synchronized Totals sum(long fromMinute, long toMinute) {
+            if (minutes.isEmpty()) {
+                return new Totals(0, 0, 0);
+            }
+            if (fromMinute <= minutes.firstKey() && toMinute >= minutes.lastKey()) {
+                return new Totals(revenue, quantity, count);
+            }
+
+            double totalRevenue = 0;
+            long totalQuantity = 0;
+            long totalCount = 0;
+            for (Bucket bucket : minutes.subMap(fromMinute, true, toMinute, true).values()) {
+                totalRevenue += bucket.revenue;
+                totalQuantity += bucket.quantity;
+                totalCount += bucket.count;
+            }
+
+            return new Totals(totalRevenue, totalQuantity, totalCount);
+        }
+    }
+}
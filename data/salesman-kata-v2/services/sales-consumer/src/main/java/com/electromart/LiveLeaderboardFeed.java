@@ -0,0 +1,146 @@
+package com.electromart;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+final class LiveLeaderboardFeed implements AutoCloseable {
+
+    private final LiveLeaderboard leaderboard;
+    private final Consumer<String, String> consumer;
+    private final String topic;
+    private Thread thread;
+
+    LiveLeaderboardFeed(LiveLeaderboard leaderboard, Consumer<String, String> consumer, String topic) {
+        this.leaderboard = leaderboard;
+        this.consumer = consumer;
+        this.topic = topic;
+    }
+
+    static LiveLeaderboardFeed create(LiveLeaderboard leaderboard, String broker, String topic) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Env.get("KAFKA_MAX_POLL_RECORDS", "100"));
+        return new LiveLeaderboardFeed(leaderboard, new KafkaConsumer<>(props), topic);
+    }
+
+    static Map<TopicPartition, OffsetAndMetadata> committedOffsets(String broker, String groupId) throws Exception {
+        Properties props = new Properties();
+        props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, broker);
+        try (Admin admin = Admin.create(props)) {
+            return admin.listConsumerGroupOffsets(groupId).partitionsToOffsetAndMetadata().get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    void assign(Map<TopicPartition, OffsetAndMetadata> writerOffsets) {
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (PartitionInfo info : consumer.partitionsFor(topic)) {
+            partitions.add(new TopicPartition(topic, info.partition()));
+        }
+        consumer.assign(partitions);
+
+        Map<TopicPartition, Long> uncommitted = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata committed = writerOffsets.get(partition);
+            if (committed != null) {
+                consumer.seek(partition, committed.offset());
+            } else {
+                uncommitted.put(partition, leaderboard.horizonStart().toEpochMilli());
+            }
+        }
+
+        if (!uncommitted.isEmpty()) {
+            for (Map.Entry<TopicPartition, OffsetAndTimestamp> entry : consumer.offsetsForTimes(uncommitted).entrySet()) {
+                if (entry.getValue() != null) {
+                    consumer.seek(entry.getKey(), entry.getValue().offset());
+                } else {
+                    consumer.seekToEnd(List.of(entry.getKey()));
+                }
+            }
+        }
+    }
+
+    synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+
+        thread = Thread.ofPlatform().daemon().name("live-leaderboard-feed").start(() -> {
+            try {
+                if (consumer.assignment().isEmpty()) {
+                    assign(Map.of());
+                }
+                while (true) {
+                    poll(Duration.ofMillis(500));
+                }
+            } catch (WakeupException ignored) {
+            } catch (Exception e) {
+                System.err.println("Live leaderboard feed stopped: " + e.getMessage());
+            } finally {
+                consumer.close();
+            }
+        });
+    }
+
+    int poll(Duration timeout) {
+        int recorded = 0;
+        for (ConsumerRecord<String, String> record : consumer.poll(timeout)) {
+            if (record.value() == null) {
+                continue;
+            }
+
+            try {
+                leaderboard.record(SalesWriter.parse(record.value()).toResult(true));
+                recorded++;
+            } catch (Exception e) {
+                System.err.printf(
+                    "Live leaderboard skipped unparseable sale from partition %d offset %d: %s%n",
+                    record.partition(), record.offset(), e.getMessage()
+                );
+            }
+        }
+        return recorded;
+    }
+
+    @Override
+    public void close() {
+        Thread running;
+        synchronized (this) {
+            running = thread;
+            thread = null;
+        }
+        if (running == null) {
+            consumer.close();
+            return;
+        }
+
+        consumer.wakeup();
+        try {
+            running.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.electromart;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class PartitionWorker implements AutoCloseable {
+
+    interface Writer extends AutoCloseable {
+        void write(List<ConsumerRecord<String, String>> records, boolean bulk) throws Exception;
+
+        @Override
+        void close();
+    }
+
+    private final TopicPartition partition;
+    private final Writer writer;
+    private final ExecutorService executor;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong ackedOffset = new AtomicLong(-1);
+    private final AtomicLong failedOffset = new AtomicLong(-1);
+
+    PartitionWorker(TopicPartition partition, Writer writer) {
+        this.partition = partition;
+        this.writer = writer;
+        this.executor = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("sales-writer-" + partition).factory()
+        );
+    }
+
+    void submit(List<ConsumerRecord<String, String>> records, boolean bulk) {
+        queued.addAndGet(records.size());
+        executor.execute(() -> {
+            try {
+                if (failedOffset.get() >= 0) {
+                    return;
+                }
+                writer.write(records, bulk);
+                ackedOffset.set(records.get(records.size() - 1).offset() + 1);
+            } catch (Exception e) {
+                System.err.printf("Writer for %s failed at offset %d: %s%n", partition, records.get(0).offset(), e.getMessage());
+                failedOffset.compareAndSet(-1, records.get(0).offset());
+            } finally {
+                queued.addAndGet(-records.size());
+            }
+        });
+    }
+
+    int queued() {
+        return queued.get();
+    }
+
+    long takeAckedOffset() {
+        return ackedOffset.getAndSet(-1);
+    }
+
+    long failedOffset() {
+        return failedOffset.get();
+    }
+
+    void clearFailure() {
+        failedOffset.set(-1);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        writer.close();
+    }
+}
@@ -0,0 +1,167 @@
+package com.electromart;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+final class PartitionWorkers implements ConsumerRebalanceListener, AutoCloseable {
+
+    private final Consumer<String, String> consumer;
+    private final int queueCapacity;
+    private final Function<TopicPartition, PartitionWorker.Writer> writerFactory;
+    private final Map<TopicPartition, PartitionWorker> workers = new HashMap<>();
+
+    PartitionWorkers(
+        Consumer<String, String> consumer,
+        int queueCapacity,
+        Function<TopicPartition, PartitionWorker.Writer> writerFactory
+    ) {
+        this.consumer = consumer;
+        this.queueCapacity = queueCapacity;
+        this.writerFactory = writerFactory;
+    }
+
+    void dispatch(Iterable<ConsumerRecord<String, String>> records, boolean bulk) {
+        Map<TopicPartition, List<ConsumerRecord<String, String>>> byPartition = groupByPartition(records);
+        byPartition.keySet().retainAll(consumer.assignment());
+
+        for (Map.Entry<TopicPartition, List<ConsumerRecord<String, String>>> entry : byPartition.entrySet()) {
+            workers
+                .computeIfAbsent(entry.getKey(), partition -> new PartitionWorker(partition, writerFactory.apply(partition)))
+                .submit(entry.getValue(), bulk);
+        }
+    }
+
+    void applyBackpressure() {
+        Set<TopicPartition> paused = consumer.paused();
+        List<TopicPartition> toPause = new ArrayList<>();
+        List<TopicPartition> toResume = new ArrayList<>();
+
+        for (Map.Entry<TopicPartition, PartitionWorker> entry : workers.entrySet()) {
+            TopicPartition partition = entry.getKey();
+            PartitionWorker worker = entry.getValue();
+            int queued = worker.queued();
+
+            if (worker.failedOffset() >= 0) {
+                if (queued == 0) {
+                    consumer.seek(partition, worker.failedOffset());
+                    worker.clearFailure();
+                    toResume.add(partition);
+                } else {
+                    toPause.add(partition);
+                }
+            } else if (queued >= queueCapacity) {
+                toPause.add(partition);
+            } else if (queued <= queueCapacity / 2) {
+                toResume.add(partition);
+            }
+        }
+
+        toPause.removeAll(paused);
+        toResume.retainAll(paused);
+        if (!toPause.isEmpty()) {
+            consumer.pause(toPause);
+        }
+        if (!toResume.isEmpty()) {
+            consumer.resume(toResume);
+        }
+    }
+
+    void commitAcked() {
+        Map<TopicPartition, OffsetAndMetadata> offsets = takeAcked(workers.keySet());
+        if (offsets.isEmpty()) {
+            return;
+        }
+
+        consumer.commitAsync(offsets, (committed, error) -> {
+            if (error != null) {
+                System.err.printf("Async offset commit failed for %s: %s%n", committed.keySet(), error.getMessage());
+            }
+        });
+    }
+
+    static Map<TopicPartition, List<ConsumerRecord<String, String>>> groupByPartition(
+        Iterable<ConsumerRecord<String, String>> records
+    ) {
+        Map<TopicPartition, List<ConsumerRecord<String, String>>> byPartition = new LinkedHashMap<>();
+        for (ConsumerRecord<String, String> record : records) {
+            byPartition
+                .computeIfAbsent(new TopicPartition(record.topic(), record.partition()), partition -> new ArrayList<>())
+                .add(record);
+        }
+        return byPartition;
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        drainAndCommit(partitions);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+        System.out.printf("Assigned partitions: %s%n", partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            PartitionWorker worker = workers.remove(partition);
+            if (worker != null) {
+                worker.close();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        drainAndCommit(new ArrayList<>(workers.keySet()));
+    }
+
+    private void drainAndCommit(Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            PartitionWorker worker = workers.get(partition);
+            if (worker != null) {
+                worker.close();
+            }
+        }
+
+        Map<TopicPartition, OffsetAndMetadata> offsets = takeAcked(partitions);
+        workers.keySet().removeAll(partitions);
+        if (offsets.isEmpty()) {
+            return;
+        }
+
+        try {
+            consumer.commitSync(offsets);
+        } catch (Exception e) {
+            System.err.printf("Offset commit on revoke failed for %s: %s%n", offsets.keySet(), e.getMessage());
+        }
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> takeAcked(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            PartitionWorker worker = workers.get(partition);
+            if (worker == null) {
+                continue;
+            }
+
+            long acked = worker.takeAckedOffset();
+            if (acked >= 0) {
+                offsets.put(partition, new OffsetAndMetadata(acked));
+            }
+        }
+        return offsets;
+    }
+}
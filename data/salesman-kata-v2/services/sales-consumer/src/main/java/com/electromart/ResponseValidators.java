@@ -0,0 +1,89 @@
+package com.electromart;
+
+import com.sun.net.httpserver.Headers;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Objects;
+
+record ResponseValidators(String etag, Instant lastModified) {
+
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+
+    static ResponseValidators of(String endpoint, Map<String, Object> filters, AggregateResult... results) {
+        Instant lastModified = null;
+        int hash = Objects.hash(endpoint, filters);
+
+        for (AggregateResult result : results) {
+            hash = 31 * hash + Objects.hash(result.mode(), result.rows());
+            for (Map<String, Object> row : result.rows()) {
+                Instant bucket = toInstant(row.containsKey("last_bucket") ? row.get("last_bucket") : row.get("bucket"));
+                if (bucket != null && (lastModified == null || bucket.isAfter(lastModified))) {
+                    lastModified = bucket;
+                }
+            }
+        }
+
+        String version = lastModified == null ? "0" : Long.toHexString(lastModified.toEpochMilli());
+        String etag = "W/\"" + version + "-" + Integer.toHexString(hash) + "\"";
+        return new ResponseValidators(etag, lastModified == null ? null : lastModified.truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    boolean notModified(Headers requestHeaders) {
+        String ifNoneMatch = requestHeaders.getFirst("If-None-Match");
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || weakCompare(tag, etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        String ifModifiedSince = requestHeaders.getFirst("If-Modified-Since");
+        if (ifModifiedSince == null || lastModified == null) {
+            return false;
+        }
+
+        try {
+            return !lastModified.isAfter(Instant.from(HTTP_DATE.parse(ifModifiedSince.trim())));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    void apply(Headers responseHeaders) {
+        responseHeaders.set("ETag", etag);
+        responseHeaders.set("Cache-Control", "no-cache");
+        if (lastModified != null) {
+            responseHeaders.set("Last-Modified", HTTP_DATE.format(lastModified));
+        }
+    }
+
+    private static boolean weakCompare(String left, String right) {
+        return stripWeak(left).equals(stripWeak(right));
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static Instant toInstant(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toInstant();
+        }
+        if (value instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.toInstant();
+        }
+        if (value instanceof Instant instant) {
+            return instant;
+        }
+        return null;
+    }
+}
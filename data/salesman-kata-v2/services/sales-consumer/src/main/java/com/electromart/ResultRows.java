@@ -0,0 +1,114 @@
+package com.electromart;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public final class ResultRows extends AbstractList<Map<String, Object>> implements JsonSerializable {
+
+    private final String[] columns;
+    private final SerializableString[] fieldNames;
+    private final List<Object[]> data;
+
+    private ResultRows(String[] columns, List<Object[]> data) {
+        this.columns = columns;
+        this.data = data;
+        this.fieldNames = new SerializableString[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            fieldNames[i] = new SerializedString(columns[i]);
+        }
+    }
+
+    public static ResultRows read(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        String[] columns = new String[meta.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = meta.getColumnLabel(i + 1);
+        }
+
+        List<Object[]> data = new ArrayList<>();
+        while (rs.next()) {
+            Object[] row = new Object[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                row[i] = rs.getObject(i + 1);
+            }
+            data.add(row);
+        }
+
+        return new ResultRows(columns, data);
+    }
+
+    @Override
+    public Map<String, Object> get(int index) {
+        Object[] row = data.get(index);
+        return new AbstractMap<>() {
+            @Override
+            public Set<Entry<String, Object>> entrySet() {
+                return new AbstractSet<>() {
+                    @Override
+                    public Iterator<Entry<String, Object>> iterator() {
+                        return new Iterator<>() {
+                            private int column;
+
+                            @Override
+                            public boolean hasNext() {
+                                return column < columns.length;
+                            }
+
+                            @Override
+                            public Entry<String, Object> next() {
+                                int current = column++;
+                                return new SimpleImmutableEntry<>(columns[current], row[current]);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return columns.length;
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartArray(this, data.size());
+        for (Object[] row : data) {
+            gen.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                gen.writeFieldName(fieldNames[i]);
+                provider.defaultSerializeValue(row[i], gen);
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider provider, TypeSerializer typeSer) throws IOException {
+        serialize(gen, provider);
+    }
+}
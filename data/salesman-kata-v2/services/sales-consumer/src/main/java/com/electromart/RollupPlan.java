@@ -0,0 +1,96 @@
+package com.electromart;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+final class RollupPlan {
+
+    enum Granularity {
+        HOURLY(""),
+        DAILY("_daily"),
+        MONTHLY("_monthly");
+
+        private final String viewSuffix;
+
+        Granularity(String viewSuffix) {
+            this.viewSuffix = viewSuffix;
+        }
+
+        String view(String hourlyView) {
+            return hourlyView + viewSuffix;
+        }
+    }
+
+    record Segment(Granularity granularity, Instant from, Instant to) {
+    }
+
+    private static final Duration DAILY_SETTLE = Duration.ofHours(2);
+    private static final Duration MONTHLY_SETTLE = Duration.ofDays(2);
+
+    private RollupPlan() {
+    }
+
+    static List<Segment> plan(Instant from, Instant to, Instant now) {
+        Instant lo = from == null ? null : ceilHour(from);
+        Instant hi = to == null ? null : to.truncatedTo(ChronoUnit.HOURS).plus(1, ChronoUnit.HOURS);
+
+        Instant settledDays = min(hi != null ? hi : now, now.minus(DAILY_SETTLE));
+        Instant dayLo = lo == null ? null : ceilDay(lo);
+        Instant dayHi = settledDays.truncatedTo(ChronoUnit.DAYS);
+        List<Segment> segments = new ArrayList<>();
+
+        if (dayLo != null && !dayLo.isBefore(dayHi)) {
+            add(segments, Granularity.HOURLY, lo, hi);
+            return segments;
+        }
+
+        Instant monthLo = dayLo == null ? null : ceilMonth(dayLo);
+        Instant monthHi = floorMonth(min(dayHi, now.minus(MONTHLY_SETTLE)));
+
+        add(segments, Granularity.HOURLY, lo, dayLo);
+        if (monthLo != null && !monthLo.isBefore(monthHi)) {
+            add(segments, Granularity.DAILY, dayLo, dayHi);
+        } else {
+            add(segments, Granularity.DAILY, dayLo, monthLo);
+            add(segments, Granularity.MONTHLY, monthLo, monthHi);
+            add(segments, Granularity.DAILY, monthHi, dayHi);
+        }
+        add(segments, Granularity.HOURLY, dayHi, hi);
+        return segments;
+    }
+
+    private static void add(List<Segment> segments, Granularity granularity, Instant from, Instant to) {
+        if (from == null && to == null || from != null && to != null && !from.isBefore(to)) {
+            return;
+        }
+        segments.add(new Segment(granularity, from, to));
+    }
+
+    private static Instant ceilHour(Instant instant) {
+        Instant floor = instant.truncatedTo(ChronoUnit.HOURS);
+        return floor.equals(instant) ? floor : floor.plus(1, ChronoUnit.HOURS);
+    }
+
+    private static Instant ceilDay(Instant instant) {
+        Instant floor = instant.truncatedTo(ChronoUnit.DAYS);
+        return floor.equals(instant) ? floor : floor.plus(1, ChronoUnit.DAYS);
+    }
+
+    private static Instant floorMonth(Instant instant) {
+        return YearMonth.from(instant.atOffset(ZoneOffset.UTC)).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+    }
+
+    private static Instant ceilMonth(Instant instant) {
+        Instant floor = floorMonth(instant);
+        return floor.equals(instant) ? floor : floor.atOffset(ZoneOffset.UTC).plusMonths(1).toInstant();
+    }
+
+    private static Instant min(Instant left, Instant right) {
+        return left.isBefore(right) ? left : right;
+    }
+}
@@ -12,16 +12,18 @@ import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.errors.WakeupException;
 import org.apache.kafka.common.serialization.StringDeserializer;
 
 import com.sun.net.httpserver.HttpServer;
 
 import java.net.InetSocketAddress;
-import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.atomic.AtomicLong;
@@ -42,13 +44,27 @@ public class SalesConsumer {
         String groupId = Env.get("KAFKA_GROUP_ID", "timescale-sales-writer");
         int httpPort = Integer.parseInt(Env.get("PORT", "8090"));
         int healthPort = Integer.parseInt(Env.get("HEALTH_PORT", "8086"));
+        int bulkBatchSize = Integer.parseInt(Env.get("BULK_LOAD_BATCH_SIZE", "5000"));
+        int writerQueueCapacity = Integer.parseInt(Env.get("WRITER_QUEUE_CAPACITY", "2000"));
+        CatchUpMode catchUpMode = CatchUpMode.fromEnv();
 
         DatabaseConfig databaseConfig = DatabaseConfig.fromEnv();
-        Connection conn = Database.waitForDatabase(databaseConfig);
+        LiveLeaderboard leaderboard = LiveLeaderboard.fromEnv();
+        LiveLeaderboardFeed leaderboardFeed = LiveLeaderboardFeed.create(leaderboard, broker, topic);
+        Connection bootstrap = Database.waitForDatabase(databaseConfig);
+        try {
+            leaderboardFeed.assign(LiveLeaderboardFeed.committedOffsets(broker, groupId));
+            leaderboard.rebuild(bootstrap);
+        } catch (Exception e) {
+            System.err.println("Failed to rebuild live leaderboard from TimescaleDB: " + e.getMessage());
+        } finally {
+            Database.closeQuietly(bootstrap);
+        }
+        leaderboardFeed.start();
 
         initializeMetrics();
 
-        HttpApiServer httpApiServer = new HttpApiServer(databaseConfig, httpPort);
+        HttpApiServer httpApiServer = new HttpApiServer(databaseConfig, httpPort, leaderboard);
         httpApiServer.start();
 
         HttpServer healthServer = startHealthServer(healthPort);
@@ -60,9 +76,14 @@ public class SalesConsumer {
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
-        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, "100");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Env.get("KAFKA_MAX_POLL_RECORDS", "100"));
 
         KafkaConsumer<String, String> consumer = new KafkaConsumer<>(props);
+        PartitionWorkers workers = new PartitionWorkers(
+            consumer,
+            writerQueueCapacity,
+            partition -> new JdbcPartitionWriter(partition, databaseConfig)
+        );
 
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             System.out.println("Shutting down consumer and HTTP APIs...");
@@ -73,7 +94,7 @@ public class SalesConsumer {
             consumer.wakeup();
         }));
 
-        consumer.subscribe(List.of(topic));
+        consumer.subscribe(List.of(topic), workers);
         System.out.printf(
             "Sales Consumer started | topic: %s | group: %s | db: %s | api-port: %d | health-port: %d%n",
             topic, groupId, databaseConfig.jdbcUrl(), httpPort, healthPort
@@ -81,43 +102,24 @@ public class SalesConsumer {
 
         try {
             while (true) {
-                ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(1000));
-
-                for (ConsumerRecord<String, String> record : records) {
-                    if (record.value() == null) {
-                        continue;
-                    }
-
-                    try {
-                        recordInsert(SalesWriter.insertSale(conn, record.value()));
-                    } catch (Exception e) {
-                        if (!Database.isValid(conn)) {
-                            System.err.println("Connection lost, reconnecting...");
-                            conn = Database.waitForDatabase(databaseConfig);
-                        }
-
-                        try {
-                            recordInsert(SalesWriter.insertSale(conn, record.value()));
-                        } catch (Exception retryEx) {
-                            System.err.printf(
-                                "Failed to insert sale from partition %d offset %d: %s%n",
-                                record.partition(), record.offset(), retryEx.getMessage()
-                            );
-                        }
-                    }
-                }
+                ConsumerRecords<String, String> records = consumer.poll(Duration.ofMillis(100));
 
                 if (!records.isEmpty()) {
-                    consumer.commitSync();
+                    boolean bulk = catchUpMode.update(totalLag(consumer));
+                    workers.dispatch(bulk ? drainForBulk(consumer, records, bulkBatchSize) : records, bulk);
                 }
+
+                workers.applyBackpressure();
+                workers.commitAcked();
             }
         } catch (WakeupException ignored) {
         } catch (Exception e) {
             System.err.println("Consumer error: " + e.getMessage());
         } finally {
+            workers.close();
             consumer.close();
-            Database.closeQuietly(conn);
             httpApiServer.stop();
+            leaderboardFeed.close();
             if (healthServer != null) {
                 healthServer.stop(0);
             }
@@ -149,7 +151,48 @@ public class SalesConsumer {
             .build();
     }
 
-    private static void recordInsert(SalesWriteResult result) {
+    private static long totalLag(KafkaConsumer<String, String> consumer) {
+        long lag = 0;
+        for (TopicPartition partition : consumer.assignment()) {
+            lag += consumer.currentLag(partition).orElse(0);
+        }
+        return lag;
+    }
+
+    private static List<ConsumerRecord<String, String>> drainForBulk(
+        KafkaConsumer<String, String> consumer,
+        ConsumerRecords<String, String> first,
+        int batchSize
+    ) {
+        List<ConsumerRecord<String, String>> bulk = new ArrayList<>(batchSize);
+        first.forEach(bulk::add);
+
+        while (bulk.size() < batchSize) {
+            ConsumerRecords<String, String> next = consumer.poll(Duration.ofMillis(100));
+            if (next.isEmpty()) {
+                break;
+            }
+            next.forEach(bulk::add);
+        }
+
+        return bulk;
+    }
+
+    static void recordBatch(List<SalesWriteResult> results) {
+        int inserted = 0;
+        for (SalesWriteResult result : results) {
+            recordInsert(result);
+            if (result.inserted()) {
+                inserted++;
+            }
+        }
+
+        if (inserted > 0) {
+            System.out.printf("Inserted %d sales (%d duplicates skipped)%n", inserted, results.size() - inserted);
+        }
+    }
+
+    static void recordInsert(SalesWriteResult result) {
         if (result.timestampFallbackUsed()) {
             timestampFallbacks.incrementAndGet();
             timestampFallbackCounter.add(1);
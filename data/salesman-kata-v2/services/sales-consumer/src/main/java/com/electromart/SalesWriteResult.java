@@ -1,11 +1,18 @@
 package com.electromart;
 
+import java.time.Instant;
+
 public record SalesWriteResult(
     boolean inserted,
     boolean timestampFallbackUsed,
     String saleId,
     String source,
     double totalAmount,
-    String pickedUpAt
+    String pickedUpAt,
+    String city,
+    String salesmanName,
+    String productName,
+    int quantity,
+    Instant saleTimestamp
 ) {
 }
@@ -2,11 +2,22 @@ package com.electromart;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 
+import java.io.StringReader;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 public final class SalesWriter {
 
@@ -22,53 +33,217 @@ public final class SalesWriter {
         ) ON CONFLICT (sale_id, sale_timestamp) DO NOTHING
         """;
 
+    private static final String SALES_COLUMNS = """
+        sale_id, source, product_code, product_name, category, brand,
+        salesman_name, salesman_email, region, store_name, city, store_type,
+        quantity, unit_price, total_amount, sale_timestamp, trace_id
+        """;
+
+    private static final String CREATE_STAGING_SQL = """
+        CREATE TEMP TABLE IF NOT EXISTS sales_staging (LIKE sales INCLUDING DEFAULTS) ON COMMIT DELETE ROWS
+        """;
+
+    private static final String COPY_STAGING_SQL =
+        "COPY sales_staging (" + SALES_COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MERGE_STAGING_SQL =
+        "INSERT INTO sales (" + SALES_COLUMNS + ") SELECT " + SALES_COLUMNS + " FROM sales_staging "
+            + "ON CONFLICT (sale_id, sale_timestamp) DO NOTHING RETURNING sale_id, sale_timestamp";
+
     private SalesWriter() {
     }
 
     public static SalesWriteResult insertSale(Connection conn, String json) throws Exception {
-        JsonNode node = MAPPER.readTree(json);
-        boolean timestampFallbackUsed = false;
-        Timestamp saleTimestamp;
+        ParsedSale sale = parse(json);
+
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+            bind(stmt, sale);
+
+            int rows = stmt.executeUpdate();
+            if (rows > 0) {
+                System.out.printf("Inserted sale %s%n", sale.node().path("sale_id").asText());
+            }
+
+            return sale.toResult(rows > 0);
+        }
+    }
+
+    public static List<SalesWriteResult> insertBatch(Connection conn, Iterable<ConsumerRecord<String, String>> records) throws Exception {
+        return insertParsed(conn, parseAll(records));
+    }
+
+    public static List<SalesWriteResult> copyBatch(Connection conn, Iterable<ConsumerRecord<String, String>> records) throws Exception {
+        List<ParsedSale> sales = parseAll(records);
+        if (sales.isEmpty()) {
+            return List.of();
+        }
+
+        StringBuilder csv = new StringBuilder(sales.size() * 256);
+        for (ParsedSale sale : sales) {
+            appendCsvRow(csv, sale);
+        }
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
 
         try {
-            saleTimestamp = Timestamp.from(Instant.parse(node.path("sale_timestamp").asText()));
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(CREATE_STAGING_SQL);
+            }
+
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+            copyManager.copyIn(COPY_STAGING_SQL, new StringReader(csv.toString()));
+
+            Set<String> insertedKeys = new HashSet<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(MERGE_STAGING_SQL)) {
+                while (rs.next()) {
+                    insertedKeys.add(key(rs.getString(1), rs.getTimestamp(2)));
+                }
+            }
+            conn.commit();
+
+            List<SalesWriteResult> results = new ArrayList<>(sales.size());
+            for (ParsedSale sale : sales) {
+                String key = key(sale.node().path("sale_id").asText(), sale.saleTimestamp());
+                results.add(sale.toResult(insertedKeys.remove(key)));
+            }
+            return results;
         } catch (Exception e) {
-            saleTimestamp = Timestamp.from(Instant.now());
-            timestampFallbackUsed = true;
+            rollbackQuietly(conn);
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
         }
+    }
+
+    private static List<ParsedSale> parseAll(Iterable<ConsumerRecord<String, String>> records) {
+        List<ParsedSale> sales = new ArrayList<>();
+
+        for (ConsumerRecord<String, String> record : records) {
+            if (record.value() == null) {
+                continue;
+            }
+
+            try {
+                sales.add(parse(record.value()));
+            } catch (Exception e) {
+                System.err.printf(
+                    "Skipping unparseable sale from partition %d offset %d: %s%n",
+                    record.partition(), record.offset(), e.getMessage()
+                );
+            }
+        }
+
+        return sales;
+    }
+
+    private static List<SalesWriteResult> insertParsed(Connection conn, List<ParsedSale> sales) throws Exception {
+        if (sales.isEmpty()) {
+            return List.of();
+        }
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
 
         try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
-            stmt.setString(1, node.path("sale_id").asText());
-            stmt.setString(2, node.path("source").asText());
-            stmt.setString(3, textOrNull(node, "product_code"));
-            stmt.setString(4, textOrNull(node, "product_name"));
-            stmt.setString(5, textOrNull(node, "category"));
-            stmt.setString(6, textOrNull(node, "brand"));
-            stmt.setString(7, textOrNull(node, "salesman_name"));
-            stmt.setString(8, textOrNull(node, "salesman_email"));
-            stmt.setString(9, textOrNull(node, "region"));
-            stmt.setString(10, textOrNull(node, "store_name"));
-            stmt.setString(11, textOrNull(node, "city"));
-            stmt.setString(12, textOrNull(node, "store_type"));
-            stmt.setInt(13, node.path("quantity").asInt(0));
-            stmt.setDouble(14, node.path("unit_price").asDouble(0));
-            stmt.setDouble(15, node.path("total_amount").asDouble(0));
-            stmt.setTimestamp(16, saleTimestamp);
-            stmt.setString(17, textOrNull(node, "trace_id"));
+            for (ParsedSale sale : sales) {
+                bind(stmt, sale);
+                stmt.addBatch();
+            }
 
-            int rows = stmt.executeUpdate();
-            if (rows > 0) {
-                System.out.printf("Inserted sale %s%n", node.path("sale_id").asText());
+            int[] counts = stmt.executeBatch();
+            conn.commit();
+
+            List<SalesWriteResult> results = new ArrayList<>(sales.size());
+            for (int i = 0; i < sales.size(); i++) {
+                results.add(sales.get(i).toResult(i < counts.length && counts[i] > 0));
             }
+            return results;
+        } catch (Exception e) {
+            rollbackQuietly(conn);
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
 
-            return new SalesWriteResult(
-                rows > 0,
-                timestampFallbackUsed,
-                node.path("sale_id").asText("unknown"),
-                node.path("source").asText("unknown"),
-                node.path("total_amount").asDouble(0),
-                textOrNull(node, "picked_up_at")
-            );
+    static ParsedSale parse(String json) throws Exception {
+        JsonNode node = MAPPER.readTree(json);
+
+        try {
+            return new ParsedSale(node, Timestamp.from(Instant.parse(node.path("sale_timestamp").asText())), false);
+        } catch (Exception e) {
+            return new ParsedSale(node, Timestamp.from(Instant.now()), true);
+        }
+    }
+
+    private static void bind(PreparedStatement stmt, ParsedSale sale) throws SQLException {
+        JsonNode node = sale.node();
+        stmt.setString(1, node.path("sale_id").asText());
+        stmt.setString(2, node.path("source").asText());
+        stmt.setString(3, textOrNull(node, "product_code"));
+        stmt.setString(4, textOrNull(node, "product_name"));
+        stmt.setString(5, textOrNull(node, "category"));
+        stmt.setString(6, textOrNull(node, "brand"));
+        stmt.setString(7, textOrNull(node, "salesman_name"));
+        stmt.setString(8, textOrNull(node, "salesman_email"));
+        stmt.setString(9, textOrNull(node, "region"));
+        stmt.setString(10, textOrNull(node, "store_name"));
+        stmt.setString(11, textOrNull(node, "city"));
+        stmt.setString(12, textOrNull(node, "store_type"));
+        stmt.setInt(13, node.path("quantity").asInt(0));
+        stmt.setDouble(14, node.path("unit_price").asDouble(0));
+        stmt.setDouble(15, node.path("total_amount").asDouble(0));
+        stmt.setTimestamp(16, sale.saleTimestamp());
+        stmt.setString(17, textOrNull(node, "trace_id"));
+    }
+
+    static void appendCsvRow(StringBuilder csv, ParsedSale sale) {
+        JsonNode node = sale.node();
+        appendCsvText(csv, node.path("sale_id").asText()).append(',');
+        appendCsvText(csv, node.path("source").asText()).append(',');
+        appendCsvText(csv, textOrNull(node, "product_code")).append(',');
+        appendCsvText(csv, textOrNull(node, "product_name")).append(',');
+        appendCsvText(csv, textOrNull(node, "category")).append(',');
+        appendCsvText(csv, textOrNull(node, "brand")).append(',');
+        appendCsvText(csv, textOrNull(node, "salesman_name")).append(',');
+        appendCsvText(csv, textOrNull(node, "salesman_email")).append(',');
+        appendCsvText(csv, textOrNull(node, "region")).append(',');
+        appendCsvText(csv, textOrNull(node, "store_name")).append(',');
+        appendCsvText(csv, textOrNull(node, "city")).append(',');
+        appendCsvText(csv, textOrNull(node, "store_type")).append(',');
+        csv.append(node.path("quantity").asInt(0)).append(',');
+        csv.append(node.path("unit_price").asDouble(0)).append(',');
+        csv.append(node.path("total_amount").asDouble(0)).append(',');
+        csv.append(sale.saleTimestamp().toInstant()).append(',');
+        appendCsvText(csv, textOrNull(node, "trace_id")).append('\n');
+    }
+
+    private static StringBuilder appendCsvText(StringBuilder csv, String value) {
+        if (value == null) {
+            return csv;
+        }
+
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        return csv.append('"');
+    }
+
+    private static String key(String saleId, Timestamp saleTimestamp) {
+        return saleId + "|" + saleTimestamp.getTime();
+    }
+
+    private static void rollbackQuietly(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (Exception ignored) {
         }
     }
 
@@ -80,4 +255,23 @@ public final class SalesWriter {
 
         return val.asText();
     }
+
+    record ParsedSale(JsonNode node, Timestamp saleTimestamp, boolean timestampFallbackUsed) {
+
+        SalesWriteResult toResult(boolean inserted) {
+            return new SalesWriteResult(
+                inserted,
+                timestampFallbackUsed,
+                node.path("sale_id").asText("unknown"),
+                node.path("source").asText("unknown"),
+                node.path("total_amount").asDouble(0),
+                textOrNull(node, "picked_up_at"),
+                textOrNull(node, "city"),
+                textOrNull(node, "salesman_name"),
+                textOrNull(node, "product_name"),
+                node.path("quantity").asInt(0),
+                saleTimestamp.toInstant()
+            );
+        }
+    }
 }
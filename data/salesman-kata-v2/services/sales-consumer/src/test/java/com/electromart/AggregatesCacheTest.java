@@ -0,0 +1,165 @@
+package com.electromart;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AggregatesCacheTest {
+
+    private static final AggregatesCache.Key KEY = new AggregatesCache.Key("top-cities", null, null, 10);
+
+    @Test
+    void servesCachedResultUntilNextRefreshBoundary() throws Exception {
+        MutableClock clock = new MutableClock(Instant.parse("2026-03-13T10:02:00Z"));
+        AggregatesCache cache = new AggregatesCache(Duration.ofMinutes(5), Duration.ofMinutes(5), 100, clock);
+        AtomicInteger loads = new AtomicInteger();
+        AggregatesCache.Loader loader = () -> new AggregateResult("latest", List.of(Map.of("n", loads.incrementAndGet())));
+
+        AggregateResult first = cache.get(KEY, loader);
+        clock.now = Instant.parse("2026-03-13T10:04:59Z");
+        assertSame(first, cache.get(KEY, loader));
+
+        clock.now = Instant.parse("2026-03-13T10:05:00Z");
+        cache.get(KEY, loader);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void concurrentIdenticalLookupsShareOneLoad() throws Exception {
+        AggregatesCache cache = new AggregatesCache(Duration.ofMinutes(5), Duration.ZERO, 100, Clock.systemUTC());
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        AggregatesCache.Loader loader = () -> {
+            loads.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return new AggregateResult("latest", List.of());
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<AggregateResult>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(pool.submit(() -> cache.get(KEY, loader)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            AggregateResult shared = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<AggregateResult> result : results) {
+                assertSame(shared, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedLoadsAreNotCached() throws Exception {
+        AggregatesCache cache = new AggregatesCache(Duration.ofMinutes(5), Duration.ZERO, 100, Clock.systemUTC());
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> cache.get(KEY, () -> {
+            loads.incrementAndGet();
+            throw new IllegalStateException("db down");
+        }));
+        cache.get(KEY, () -> {
+            loads.incrementAndGet();
+            return new AggregateResult("latest", List.of());
+        });
+
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void loaderErrorReleasesWaitersAndIsNotCached() throws Exception {
+        AggregatesCache cache = new AggregatesCache(Duration.ofMinutes(5), Duration.ZERO, 100, Clock.systemUTC());
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<AggregateResult> failing = pool.submit(() -> cache.get(KEY, () -> {
+                loading.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                throw new AssertionError("loader bug");
+            }));
+            loading.await(5, TimeUnit.SECONDS);
+            Future<AggregateResult> waiting = pool.submit(() -> cache.get(KEY, () -> new AggregateResult("latest", List.of())));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertInstanceOf(AssertionError.class, assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS)).getCause());
+            assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS));
+            assertEquals(0, cache.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void waitersGiveUpAfterLoadTimeout() throws Exception {
+        AggregatesCache cache = new AggregatesCache(Duration.ofMinutes(5), Duration.ZERO, 100, Duration.ofMillis(50), Clock.systemUTC());
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            pool.submit(() -> cache.get(KEY, () -> {
+                loading.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return new AggregateResult("latest", List.of());
+            }));
+            loading.await(5, TimeUnit.SECONDS);
+
+            ApiException timeout = assertThrows(ApiException.class, () -> cache.get(KEY, () -> new AggregateResult("latest", List.of())));
+            assertEquals(503, timeout.statusCode());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
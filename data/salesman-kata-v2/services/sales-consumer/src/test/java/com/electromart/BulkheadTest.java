@@ -0,0 +1,50 @@
+package com.electromart;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkheadTest {
+
+    @Test
+    void shedsRequestsOnceSlotsAndQueueAreFull() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("summary", 1, 1, Duration.ofSeconds(5));
+        assertTrue(bulkhead.tryEnter());
+
+        CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return bulkhead.tryEnter();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (bulkhead.queued() == 0) {
+            Thread.sleep(5);
+        }
+
+        assertFalse(bulkhead.tryEnter());
+
+        bulkhead.exit();
+        assertTrue(waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(1, bulkhead.inFlight());
+        assertEquals(0, bulkhead.queued());
+    }
+
+    @Test
+    void queuedRequestIsRejectedAfterTimeout() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("health", 1, 4, Duration.ofMillis(20));
+        assertTrue(bulkhead.tryEnter());
+
+        assertFalse(bulkhead.tryEnter());
+        assertEquals(0, bulkhead.queued());
+
+        bulkhead.exit();
+        assertTrue(bulkhead.tryEnter());
+    }
+}
@@ -0,0 +1,21 @@
+package com.electromart;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatchUpModeTest {
+
+    @Test
+    void switchesToBulkAboveEnterLagAndBackBelowExitLag() {
+        CatchUpMode mode = new CatchUpMode(1000, 100);
+
+        assertFalse(mode.update(999));
+        assertTrue(mode.update(1000));
+        assertTrue(mode.update(500));
+        assertTrue(mode.update(101));
+        assertFalse(mode.update(100));
+        assertFalse(mode.update(500));
+    }
+}
@@ -0,0 +1,97 @@
+package com.electromart;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolTest {
+
+    @Test
+    void returnedConnectionsAreReusedInsteadOfReopened() throws Exception {
+        AtomicInteger opened = new AtomicInteger();
+        AtomicInteger closed = new AtomicInteger();
+
+        try (ConnectionPool pool = new ConnectionPool(
+            () -> fakeConnection(opened, closed), 2, 1, Duration.ofMillis(100), Duration.ofMinutes(5)
+        )) {
+            for (int i = 0; i < 5; i++) {
+                try (Connection conn = pool.get()) {
+                    assertEquals(1, pool.activeCount());
+                }
+            }
+
+            assertEquals(1, opened.get());
+            assertEquals(0, closed.get());
+            assertEquals(0, pool.activeCount());
+            assertEquals(1, pool.idleCount());
+        }
+
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    void borrowFailsFastWhenPoolIsExhausted() throws Exception {
+        AtomicInteger opened = new AtomicInteger();
+
+        try (ConnectionPool pool = new ConnectionPool(
+            () -> fakeConnection(opened, new AtomicInteger()), 1, 0, Duration.ofMillis(50), Duration.ofMinutes(5)
+        )) {
+            Connection held = pool.get();
+
+            assertThrows(SQLTransientConnectionException.class, pool::get);
+
+            held.close();
+            held.close();
+            try (Connection conn = pool.get()) {
+                assertTrue(!conn.isClosed());
+            }
+            assertEquals(1, opened.get());
+        }
+    }
+
+    @Test
+    void idleConnectionsAboveMinIdleAreEvicted() throws Exception {
+        AtomicInteger closed = new AtomicInteger();
+
+        try (ConnectionPool pool = new ConnectionPool(
+            () -> fakeConnection(new AtomicInteger(), closed), 3, 1, Duration.ofMillis(50), Duration.ZERO
+        )) {
+            Connection first = pool.get();
+            Connection second = pool.get();
+            Connection third = pool.get();
+            first.close();
+            second.close();
+            third.close();
+
+            pool.evictIdle();
+
+            assertEquals(1, pool.idleCount());
+            assertEquals(2, closed.get());
+        }
+    }
+
+    private static Connection fakeConnection(AtomicInteger opened, AtomicInteger closed) {
+        opened.incrementAndGet();
+        return (Connection) Proxy.newProxyInstance(
+            ConnectionPoolTest.class.getClassLoader(),
+            new Class[]{Connection.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "close" -> {
+                    closed.incrementAndGet();
+                    yield null;
+                }
+                case "isValid", "getAutoCommit" -> true;
+                case "isClosed" -> false;
+                default -> null;
+            }
+        );
+    }
+}
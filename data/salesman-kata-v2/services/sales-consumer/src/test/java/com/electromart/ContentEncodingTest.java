@@ -0,0 +1,25 @@
+package com.electromart;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ContentEncodingTest {
+
+    @Test
+    void prefersGzipUnlessDeflateHasHigherQuality() {
+        assertEquals("gzip", ContentEncoding.negotiate("gzip, deflate, br"));
+        assertEquals("deflate", ContentEncoding.negotiate("gzip;q=0.5, deflate"));
+        assertEquals("deflate", ContentEncoding.negotiate("deflate"));
+        assertEquals("gzip", ContentEncoding.negotiate("*"));
+    }
+
+    @Test
+    void fallsBackToIdentityWhenNothingAcceptable() {
+        assertNull(ContentEncoding.negotiate(null));
+        assertNull(ContentEncoding.negotiate("br"));
+        assertNull(ContentEncoding.negotiate("gzip;q=0, deflate;q=0"));
+        assertNull(ContentEncoding.negotiate("*;q=0"));
+    }
+}
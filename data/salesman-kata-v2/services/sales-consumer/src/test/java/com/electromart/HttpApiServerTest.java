@@ -5,18 +5,29 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.lang.reflect.Proxy;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.sql.Connection;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class HttpApiServerTest {
 
@@ -111,6 +122,143 @@ class HttpApiServerTest {
         assertEquals(5, service.lastSalesmanLimit);
     }
 
+    @Test
+    void summaryEndpointRunsSubqueriesConcurrentlyOnSeparateConnections() throws Exception {
+        CyclicBarrier bothRunning = new CyclicBarrier(2);
+        AtomicInteger borrowed = new AtomicInteger();
+        FakeAggregatesService service = new FakeAggregatesService() {
+            @Override
+            public AggregateResult queryTopCities(Connection conn, String from, String to, int limit) {
+                awaitQuietly(bothRunning);
+                return super.queryTopCities(conn, from, to, limit);
+            }
+
+            @Override
+            public AggregateResult queryTopSalesmen(Connection conn, String from, String to, int limit) {
+                awaitQuietly(bothRunning);
+                return super.queryTopSalesmen(conn, from, to, limit);
+            }
+        };
+
+        server = new HttpApiServer(
+            new DatabaseConfig("localhost", "5432", "sales", "sales123", "salesdb"),
+            0,
+            () -> {
+                borrowed.incrementAndGet();
+                return fakeConnection();
+            },
+            service
+        );
+        server.start();
+
+        HttpResponse<String> response = get("/api/aggregates/summary");
+
+        assertEquals(200, response.statusCode());
+        assertEquals(2, borrowed.get());
+        String timing = response.headers().firstValue("Server-Timing").orElseThrow();
+        assertTrue(timing.matches("top-cities;dur=[0-9.]+, top-salesmen;dur=[0-9.]+"), timing);
+    }
+
+    @Test
+    void aggregateEndpointAnswersNotModifiedForMatchingEtagAndCompressesBody() throws Exception {
+        FakeAggregatesService service = new FakeAggregatesService();
+        Timestamp bucket = Timestamp.from(Instant.parse("2026-03-13T10:00:00Z"));
+        service.topCitiesResult = new AggregateResult("latest", List.of(Map.of("city", "Recife", "bucket", bucket)));
+
+        server = new HttpApiServer(
+            new DatabaseConfig("localhost", "5432", "sales", "sales123", "salesdb"),
+            0,
+            HttpApiServerTest::fakeConnection,
+            service
+        );
+        server.start();
+
+        HttpResponse<byte[]> first = send("/api/aggregates/top-sales-per-city", Map.of("Accept-Encoding", "gzip, deflate"));
+
+        assertEquals(200, first.statusCode());
+        assertEquals("gzip", first.headers().firstValue("Content-Encoding").orElseThrow());
+        assertEquals("Fri, 13 Mar 2026 10:00:00 GMT", first.headers().firstValue("Last-Modified").orElseThrow());
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(first.body()))) {
+            Map<String, Object> json = readJson(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            assertEquals(1, json.get("count"));
+        }
+
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        HttpResponse<byte[]> second = send("/api/aggregates/top-sales-per-city", Map.of("If-None-Match", etag));
+
+        assertEquals(304, second.statusCode());
+        assertEquals(0, second.body().length);
+        assertEquals(etag, second.headers().firstValue("ETag").orElseThrow());
+        assertEquals("Accept-Encoding", second.headers().firstValue("Vary").orElseThrow());
+
+        HttpResponse<byte[]> other = send("/api/aggregates/top-sales-per-city?limit=3", Map.of("If-None-Match", etag));
+        assertEquals(200, other.statusCode());
+    }
+
+    @Test
+    void topProductsEndpointPassesCategoryAndBrandFiltersAndCachesPerFilter() throws Exception {
+        FakeAggregatesService service = new FakeAggregatesService();
+        service.topProductsResult = new AggregateResult("range", List.of(Map.of("product_name", "iPhone 15", "brand", "Apple")));
+
+        server = new HttpApiServer(
+            new DatabaseConfig("localhost", "5432", "sales", "sales123", "salesdb"),
+            0,
+            HttpApiServerTest::fakeConnection,
+            service
+        );
+        server.start();
+
+        HttpResponse<String> response = get(
+            "/api/aggregates/top-products?category=SMARTPHONE&brand=Apple&from=2026-03-01T00:00:00Z&limit=3");
+
+        assertEquals(200, response.statusCode());
+        Map<String, Object> json = readJson(response.body());
+        assertEquals("top_products", json.get("source"));
+        assertEquals("range", json.get("mode"));
+        assertEquals("SMARTPHONE", castMap(json.get("filters")).get("category"));
+        assertEquals("iPhone 15", castList(json.get("items")).get(0).get("product_name"));
+        assertEquals("SMARTPHONE", service.lastCategory);
+        assertEquals("Apple", service.lastBrand);
+        assertEquals("2026-03-01T00:00:00Z", service.lastFrom);
+        assertEquals(3, service.lastLimit);
+
+        get("/api/aggregates/top-products?category=SMARTPHONE&brand=Apple&from=2026-03-01T00:00:00Z&limit=3");
+        assertEquals(1, service.topProductsCalls);
+
+        get("/api/aggregates/top-products?category=TABLET&from=2026-03-01T00:00:00Z&limit=3");
+        assertEquals(2, service.topProductsCalls);
+        assertEquals("TABLET", service.lastCategory);
+        assertNull(service.lastBrand);
+    }
+
+    @Test
+    void liveLeaderboardEndpointServesTopNFromMemory() throws Exception {
+        Instant now = Instant.now();
+        LiveLeaderboard leaderboard = new LiveLeaderboard(Duration.ofHours(1), Clock.systemUTC());
+        leaderboard.record(new SalesWriteResult(true, false, "1", "csv", 80.0, null, "Recife", "Ana", "iPad", 1, now));
+        leaderboard.record(new SalesWriteResult(true, false, "2", "csv", 95.0, null, "Natal", "Bruno", "iPad", 1, now));
+
+        server = new HttpApiServer(
+            new DatabaseConfig("localhost", "5432", "sales", "sales123", "salesdb"),
+            0,
+            HttpApiServerTest::fakeConnection,
+            new FakeAggregatesService(),
+            AggregatesCache.fromEnv(),
+            leaderboard
+        );
+        server.start();
+
+        HttpResponse<String> response = get("/api/leaderboards/live?dimension=city&window=15m&limit=1");
+
+        assertEquals(200, response.statusCode());
+        Map<String, Object> json = readJson(response.body());
+        assertEquals("live", json.get("source"));
+        assertEquals(1, json.get("count"));
+        assertEquals("PT15M", castMap(json.get("filters")).get("window"));
+        List<Map<String, Object>> items = castList(json.get("items"));
+        assertEquals("Natal", items.get(0).get("city"));
+    }
+
     @Test
     void invalidDateReturnsBadRequest() throws Exception {
         server = new HttpApiServer(
@@ -138,16 +286,38 @@ class HttpApiServerTest {
         return client.send(request, HttpResponse.BodyHandlers.ofString());
     }
 
+    private HttpResponse<byte[]> send(String path, Map<String, String> headers) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder()
+            .uri(URI.create("http://localhost:" + server.getPort() + path))
+            .GET();
+        headers.forEach(request::header);
+
+        return HttpClient.newHttpClient().send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
     private Map<String, Object> readJson(String json) throws Exception {
         return MAPPER.readValue(json, new TypeReference<>() {
         });
     }
 
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> castList(Object value) {
+        return (List<Map<String, Object>>) value;
+    }
+
     @SuppressWarnings("unchecked")
     private Map<String, Object> castMap(Object value) {
         return (Map<String, Object>) value;
     }
 
+    private static void awaitQuietly(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException("Summary subqueries did not run concurrently", e);
+        }
+    }
+
     private static Connection fakeConnection() {
         return (Connection) Proxy.newProxyInstance(
             HttpApiServerTest.class.getClassLoader(),
@@ -195,7 +365,7 @@ class HttpApiServerTest {
         return null;
     }
 
-    private static final class FakeAggregatesService implements AggregatesService {
+    private static class FakeAggregatesService implements AggregatesService {
         private int pingCalls;
         private String lastFrom;
         private String lastTo;
@@ -204,6 +374,10 @@ class HttpApiServerTest {
         private int lastSalesmanLimit;
         private AggregateResult topCitiesResult = new AggregateResult("latest", List.of());
         private AggregateResult topSalesmenResult = new AggregateResult("latest", List.of());
+        private AggregateResult topProductsResult = new AggregateResult("latest", List.of());
+        private String lastCategory;
+        private String lastBrand;
+        private int topProductsCalls;
 
         @Override
         public void ping(Connection conn) {
@@ -227,5 +401,16 @@ class HttpApiServerTest {
             lastSalesmanLimit = limit;
             return topSalesmenResult;
         }
+
+        @Override
+        public AggregateResult queryTopProducts(Connection conn, String from, String to, String category, String brand, int limit) {
+            lastFrom = from;
+            lastTo = to;
+            lastLimit = limit;
+            lastCategory = category;
+            lastBrand = brand;
+            topProductsCalls++;
+            return topProductsResult;
+        }
     }
 }
@@ -0,0 +1,107 @@
+package com.electromart;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeaderboardStreamTest {
+
+    private final AtomicReference<List<Map<String, Object>>> cities = new AtomicReference<>(List.of(
+        Map.of("city", "Recife", "total_revenue", 100),
+        Map.of("city", "Natal", "total_revenue", 80)
+    ));
+    private final AtomicInteger loads = new AtomicInteger();
+    private LeaderboardStream stream;
+
+    @AfterEach
+    void tearDown() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    @Test
+    void sharesOneLoadAcrossSubscribersAndPushesOnlyChanges() throws Exception {
+        stream = newStream(16, 10);
+        LeaderboardStream.Subscriber first = stream.subscribe();
+        LeaderboardStream.Subscriber second = stream.subscribe();
+
+        stream.publish();
+        assertEquals(1, loads.get());
+        assertTrue(first.next(Duration.ZERO).contains("event: snapshot"));
+        assertTrue(second.next(Duration.ZERO).contains("event: snapshot"));
+
+        stream.publish();
+        assertNull(first.next(Duration.ZERO));
+
+        cities.set(List.of(
+            Map.of("city", "Natal", "total_revenue", 120),
+            Map.of("city", "Recife", "total_revenue", 100)
+        ));
+        stream.publish();
+        String delta = first.next(Duration.ZERO);
+        assertTrue(delta.contains("event: delta"), delta);
+        assertTrue(delta.contains("\"upserted\":[{\"rank\":1,") && delta.contains("\"removed\":[]"), delta);
+        assertEquals(delta, second.next(Duration.ZERO));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void slowSubscriberIsResyncedWithSnapshotWhenBufferOverflows() throws Exception {
+        stream = newStream(1, 10);
+        LeaderboardStream.Subscriber slow = stream.subscribe();
+        stream.publish();
+
+        cities.set(List.of(Map.of("city", "Natal", "total_revenue", 120)));
+        stream.publish();
+
+        String event = slow.next(Duration.ZERO);
+        assertTrue(event.contains("event: snapshot"), event);
+        assertTrue(event.contains("Natal") && !event.contains("Recife"), event);
+        assertNull(slow.next(Duration.ZERO));
+    }
+
+    @Test
+    void rejectsSubscribersBeyondLimit() {
+        stream = newStream(4, 1);
+
+        LeaderboardStream.Subscriber subscriber = stream.subscribe();
+        assertNull(stream.subscribe());
+
+        stream.unsubscribe(subscriber);
+        assertEquals(0, stream.subscriberCount());
+    }
+
+    @Test
+    void diffReportsUpsertedAndRemovedKeys() {
+        Map<String, Object> delta = LeaderboardStream.diff(
+            "city",
+            List.of(Map.of("city", "Recife", "total_revenue", 100), Map.of("city", "Natal", "total_revenue", 80)),
+            List.of(Map.of("city", "Recife", "total_revenue", 100), Map.of("city", "Olinda", "total_revenue", 90))
+        );
+
+        assertEquals(List.of(Map.of("rank", 2, "city", "Olinda", "total_revenue", 90)), delta.get("upserted"));
+        assertEquals(List.of("Natal"), delta.get("removed"));
+    }
+
+    private LeaderboardStream newStream(int clientBuffer, int maxClients) {
+        return new LeaderboardStream(
+            List.of(new LeaderboardStream.Section("topSalesPerCity", "city", () -> {
+                loads.incrementAndGet();
+                return cities.get();
+            })),
+            Duration.ofHours(1),
+            clientBuffer,
+            maxClients
+        );
+    }
+}
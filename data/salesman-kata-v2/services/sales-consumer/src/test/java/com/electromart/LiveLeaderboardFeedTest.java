@@ -0,0 +1,61 @@
+package com.electromart;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LiveLeaderboardFeedTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-13T12:00:30Z");
+    private static final TopicPartition P0 = new TopicPartition("sales", 0);
+    private static final TopicPartition P1 = new TopicPartition("sales", 1);
+
+    @Test
+    void readsEveryPartitionFromTheWriterGroupsCommittedOffsets() {
+        MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        Node node = new Node(0, "localhost", 9092);
+        consumer.updatePartitions("sales", List.of(
+            new PartitionInfo("sales", 0, node, new Node[0], new Node[0]),
+            new PartitionInfo("sales", 1, node, new Node[0], new Node[0])
+        ));
+        consumer.updateBeginningOffsets(Map.of(P0, 0L, P1, 0L));
+
+        LiveLeaderboard leaderboard = new LiveLeaderboard(Duration.ofHours(1), Clock.fixed(NOW, ZoneOffset.UTC));
+        LiveLeaderboardFeed feed = new LiveLeaderboardFeed(leaderboard, consumer, "sales");
+        feed.assign(Map.of(P0, new OffsetAndMetadata(2), P1, new OffsetAndMetadata(0)));
+
+        assertEquals(Set.of(P0, P1), consumer.assignment());
+        assertEquals(2, consumer.position(P0));
+        assertEquals(0, consumer.position(P1));
+
+        consumer.addRecord(new ConsumerRecord<>("sales", 0, 2, "2", sale("2", "Recife", 100.0)));
+        consumer.addRecord(new ConsumerRecord<>("sales", 1, 0, "3", sale("3", "Natal", 40.0)));
+        consumer.addRecord(new ConsumerRecord<>("sales", 1, 1, "4", "not json"));
+
+        assertEquals(2, feed.poll(Duration.ZERO));
+        List<Map<String, Object>> cities = leaderboard.top(LiveLeaderboard.Dimension.CITY, Duration.ofHours(1), 10);
+        assertEquals(List.of("Recife", "Natal"), cities.stream().map(row -> row.get("city")).toList());
+        feed.close();
+    }
+
+    private static String sale(String id, String city, double amount) {
+        return """
+            {"sale_id":"%s","source":"csv","city":"%s","salesman_name":"Ana","product_name":"iPhone","quantity":1,"total_amount":%s,"sale_timestamp":"%s"}
+            """.formatted(id, city, amount, NOW.minusSeconds(60));
+    }
+}
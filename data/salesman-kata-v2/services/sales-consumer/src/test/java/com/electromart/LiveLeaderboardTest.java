@@ -0,0 +1,147 @@
+package com.electromart;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiveLeaderboardTest {
+
+    private static final Instant NOW = Instant.parse("2026-03-13T12:00:30Z");
+
+    @Test
+    void ranksByRevenueWithinRequestedWindow() {
+        LiveLeaderboard leaderboard = new LiveLeaderboard(Duration.ofHours(2), Clock.fixed(NOW, ZoneOffset.UTC));
+        leaderboard.record(sale("Recife", "Ana", "iPhone", 100.0, 1, NOW.minusSeconds(60)));
+        leaderboard.record(sale("Recife", "Ana", "iPhone", 50.0, 2, NOW.minusSeconds(10)));
+        leaderboard.record(sale("Fortaleza", "Bruno", "Galaxy", 120.0, 1, NOW.minusSeconds(30 * 60)));
+
+        List<Map<String, Object>> lastFiveMinutes = leaderboard.top(LiveLeaderboard.Dimension.CITY, Duration.ofMinutes(5), 10);
+        assertEquals(1, lastFiveMinutes.size());
+        assertEquals("Recife", lastFiveMinutes.get(0).get("city"));
+        assertEquals(150.0, lastFiveMinutes.get(0).get("total_revenue"));
+        assertEquals(3L, lastFiveMinutes.get(0).get("total_quantity"));
+        assertEquals(2L, lastFiveMinutes.get(0).get("total_sales"));
+
+        List<Map<String, Object>> lastHour = leaderboard.top(LiveLeaderboard.Dimension.SALESMAN, Duration.ofHours(1), 1);
+        assertEquals(List.of("Ana"), lastHour.stream().map(row -> row.get("salesman_name")).toList());
+    }
+
+    @Test
+    void ignoresSalesOutsideHorizonAndReusesExpiredSlots() {
+        LiveLeaderboard leaderboard = new LiveLeaderboard(Duration.ofMinutes(10), Clock.fixed(NOW, ZoneOffset.UTC));
+        leaderboard.record(sale("Recife", "Ana", "iPhone", 999.0, 1, NOW.minusSeconds(15 * 60)));
+        leaderboard.record(sale("Natal", "Caio", "iPad", 10.0, 1, NOW));
+
+        List<Map<String, Object>> products = leaderboard.top(LiveLeaderboard.Dimension.PRODUCT, Duration.ofHours(24), 10);
+        assertEquals(1, products.size());
+        assertEquals("iPad", products.get(0).get("product_name"));
+        assertTrue(leaderboard.top(LiveLeaderboard.Dimension.CITY, Duration.ofMinutes(10), 10)
+            .stream().noneMatch(row -> "Recife".equals(row.get("city"))));
+    }
+
+    @Test
+    void rebuildSeedsTotalsThatLaterSalesAddTo() throws Exception {
+        LiveLeaderboard leaderboard = new LiveLeaderboard(Duration.ofHours(2), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        leaderboard.rebuild(connection(List.of(
+            Map.of("minute", NOW.minusSeconds(90), "city", "Recife", "salesman_name", "Ana", "product_name", "iPhone",
+                "total_revenue", 100.0, "total_quantity", 1L, "total_sales", 1L),
+            Map.of("minute", NOW.minusSeconds(90), "city", "Natal", "salesman_name", "Caio", "product_name", "iPad",
+                "total_revenue", 400.0, "total_quantity", 2L, "total_sales", 1L)
+        )));
+        leaderboard.record(sale("Recife", "Ana", "iPhone", 350.0, 1, NOW.minusSeconds(10)));
+
+        List<Map<String, Object>> cities = leaderboard.top(LiveLeaderboard.Dimension.CITY, Duration.ofHours(1), 10);
+        assertEquals(List.of("Recife", "Natal"), cities.stream().map(row -> row.get("city")).toList());
+        assertEquals(450.0, cities.get(0).get("total_revenue"));
+        assertEquals(2L, cities.get(0).get("total_sales"));
+    }
+
+    @Test
+    void dropsKeysOnceAllTheirMinutesLeaveTheHorizon() {
+        MutableClock clock = new MutableClock(NOW);
+        LiveLeaderboard leaderboard = new LiveLeaderboard(Duration.ofMinutes(10), clock);
+        leaderboard.record(sale("Recife", "Ana", "iPhone", 100.0, 1, NOW.minusSeconds(5 * 60)));
+        leaderboard.record(sale("Natal", "Caio", "iPad", 10.0, 1, NOW));
+        assertEquals(2, leaderboard.keys(LiveLeaderboard.Dimension.CITY));
+
+        clock.now = NOW.plusSeconds(6 * 60);
+        List<Map<String, Object>> cities = leaderboard.top(LiveLeaderboard.Dimension.CITY, Duration.ofHours(1), 10);
+
+        assertEquals(List.of("Natal"), cities.stream().map(row -> row.get("city")).toList());
+        assertEquals(1, leaderboard.keys(LiveLeaderboard.Dimension.CITY));
+        assertEquals(10.0, cities.get(0).get("total_revenue"));
+    }
+
+    private static Connection connection(List<Map<String, Object>> rows) {
+        AtomicInteger cursor = new AtomicInteger(-1);
+        ResultSet resultSet = proxy(ResultSet.class, (method, args) -> switch (method) {
+            case "next" -> cursor.incrementAndGet() < rows.size();
+            case "getTimestamp" -> Timestamp.from((Instant) rows.get(cursor.get()).get((String) args[0]));
+            case "getString", "getDouble", "getLong" -> rows.get(cursor.get()).get((String) args[0]);
+            case "close" -> null;
+            default -> throw new UnsupportedOperationException(method);
+        });
+        PreparedStatement statement = proxy(PreparedStatement.class, (method, args) -> switch (method) {
+            case "setTimestamp", "close" -> null;
+            case "executeQuery" -> resultSet;
+            default -> throw new UnsupportedOperationException(method);
+        });
+        return proxy(Connection.class, (method, args) -> switch (method) {
+            case "prepareStatement" -> statement;
+            default -> throw new UnsupportedOperationException(method);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, BiFunction<String, Object[], Object> handler) {
+        return (T) Proxy.newProxyInstance(
+            LiveLeaderboardTest.class.getClassLoader(),
+            new Class[]{type},
+            (proxy, method, args) -> handler.apply(method.getName(), args)
+        );
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    private static SalesWriteResult sale(String city, String salesman, String product, double amount, int quantity, Instant at) {
+        return new SalesWriteResult(true, false, "id", "csv", amount, null, city, salesman, product, quantity, at);
+    }
+}
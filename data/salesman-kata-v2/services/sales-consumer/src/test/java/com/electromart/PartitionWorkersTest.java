@@ -0,0 +1,108 @@
+package com.electromart;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionWorkersTest {
+
+    private static final TopicPartition P0 = new TopicPartition("sales", 0);
+    private static final TopicPartition P1 = new TopicPartition("sales", 1);
+
+    @Test
+    void pausesFullPartitionAndResumesAndCommitsOnceWritesAreAcked() throws Exception {
+        MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.assign(List.of(P0, P1));
+        CountDownLatch release = new CountDownLatch(1);
+
+        PartitionWorkers workers = new PartitionWorkers(consumer, 3, partition -> new PartitionWorker.Writer() {
+            @Override
+            public void write(List<ConsumerRecord<String, String>> records, boolean bulk) throws Exception {
+                if (partition.equals(P0)) {
+                    release.await(5, TimeUnit.SECONDS);
+                }
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        workers.dispatch(List.of(record(P0, 0), record(P0, 1), record(P0, 2), record(P1, 0)), false);
+        workers.applyBackpressure();
+
+        assertEquals(Set.of(P0), consumer.paused());
+
+        release.countDown();
+        waitUntil(() -> {
+            workers.applyBackpressure();
+            workers.commitAcked();
+            return consumer.paused().isEmpty() && consumer.committed(Set.of(P0, P1)).size() == 2;
+        });
+
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(Set.of(P0, P1));
+        assertEquals(3, committed.get(P0).offset());
+        assertEquals(1, committed.get(P1).offset());
+        workers.close();
+    }
+
+    @Test
+    void failedWriteRewindsPartitionOnceItsQueueDrains() throws Exception {
+        MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.assign(List.of(P0));
+        consumer.updateBeginningOffsets(Map.of(P0, 0L));
+        consumer.seek(P0, 12);
+
+        PartitionWorkers workers = new PartitionWorkers(consumer, 100, partition -> new PartitionWorker.Writer() {
+            @Override
+            public void write(List<ConsumerRecord<String, String>> records, boolean bulk) {
+                throw new IllegalStateException("boom");
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        workers.dispatch(List.of(record(P0, 10), record(P0, 11)), false);
+        waitUntil(() -> {
+            workers.applyBackpressure();
+            return consumer.position(P0) == 10;
+        });
+
+        workers.commitAcked();
+        assertTrue(consumer.committed(Set.of(P0)).isEmpty());
+        workers.close();
+    }
+
+    private static ConsumerRecord<String, String> record(TopicPartition partition, long offset) {
+        return new ConsumerRecord<>(partition.topic(), partition.partition(), offset, null, "{}");
+    }
+
+    private static void waitUntil(Condition condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.met()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within 5s");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Condition {
+        boolean met();
+    }
+}
@@ -0,0 +1,69 @@
+package com.electromart;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ResultRowsTest {
+
+    @Test
+    void serializesRowsAsObjectsInColumnOrder() throws Exception {
+        ResultRows rows = ResultRows.read(resultSet(
+            new String[]{"city", "total_revenue"},
+            List.of(
+                new Object[]{"Porto Alegre", new BigDecimal("1500.50")},
+                new Object[]{"Curitiba", null}
+            )
+        ));
+
+        assertEquals(
+            "[{\"city\":\"Porto Alegre\",\"total_revenue\":1500.50},{\"city\":\"Curitiba\",\"total_revenue\":null}]",
+            new ObjectMapper().writeValueAsString(rows)
+        );
+    }
+
+    @Test
+    void exposesRowsAsMaps() throws Exception {
+        ResultRows rows = ResultRows.read(resultSet(
+            new String[]{"salesman_name", "total_sales"},
+            List.<Object[]>of(new Object[]{"Ana", 3L})
+        ));
+
+        assertEquals(1, rows.size());
+        assertEquals(Map.of("salesman_name", "Ana", "total_sales", 3L), rows.get(0));
+        assertEquals("Ana", rows.get(0).get("salesman_name"));
+    }
+
+    private static ResultSet resultSet(String[] columns, List<Object[]> data) {
+        ResultSetMetaData meta = (ResultSetMetaData) Proxy.newProxyInstance(
+            ResultRowsTest.class.getClassLoader(),
+            new Class[]{ResultSetMetaData.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getColumnCount" -> columns.length;
+                case "getColumnLabel" -> columns[(int) args[0] - 1];
+                default -> throw new UnsupportedOperationException(method.getName());
+            }
+        );
+
+        AtomicInteger cursor = new AtomicInteger(-1);
+        return (ResultSet) Proxy.newProxyInstance(
+            ResultRowsTest.class.getClassLoader(),
+            new Class[]{ResultSet.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getMetaData" -> meta;
+                case "next" -> cursor.incrementAndGet() < data.size();
+                case "getObject" -> data.get(cursor.get())[(int) args[0] - 1];
+                default -> throw new UnsupportedOperationException(method.getName());
+            }
+        );
+    }
+}
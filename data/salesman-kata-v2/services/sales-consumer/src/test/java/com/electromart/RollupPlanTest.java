@@ -0,0 +1,77 @@
+package com.electromart;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static com.electromart.RollupPlan.Granularity.DAILY;
+import static com.electromart.RollupPlan.Granularity.HOURLY;
+import static com.electromart.RollupPlan.Granularity.MONTHLY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RollupPlanTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-19T12:30:00Z");
+
+    @Test
+    void shortRangeStaysOnHourlyBuckets() {
+        assertEquals(
+            List.of(segment(HOURLY, "2026-10-01T10:00:00Z", "2026-10-01T19:00:00Z")),
+            RollupPlan.plan(Instant.parse("2026-10-01T09:15:00Z"), Instant.parse("2026-10-01T18:00:00Z"), NOW)
+        );
+    }
+
+    @Test
+    void longRangeUsesMonthsAndStitchesEdgesFromFinerBuckets() {
+        assertEquals(
+            List.of(
+                segment(HOURLY, "2025-01-15T06:00:00Z", "2025-01-16T00:00:00Z"),
+                segment(DAILY, "2025-01-16T00:00:00Z", "2025-02-01T00:00:00Z"),
+                segment(MONTHLY, "2025-02-01T00:00:00Z", "2026-03-01T00:00:00Z"),
+                segment(DAILY, "2026-03-01T00:00:00Z", "2026-03-10T00:00:00Z"),
+                segment(HOURLY, "2026-03-10T00:00:00Z", "2026-03-10T13:00:00Z")
+            ),
+            RollupPlan.plan(Instant.parse("2025-01-15T06:00:00Z"), Instant.parse("2026-03-10T12:59:59Z"), NOW)
+        );
+    }
+
+    @Test
+    void openEndedRangeLeavesUnsettledRecentDataOnHourlyBuckets() {
+        assertEquals(
+            List.of(
+                segment(MONTHLY, null, "2026-10-01T00:00:00Z"),
+                segment(DAILY, "2026-10-01T00:00:00Z", "2026-10-19T00:00:00Z"),
+                segment(HOURLY, "2026-10-19T00:00:00Z", null)
+            ),
+            RollupPlan.plan(null, null, NOW)
+        );
+    }
+
+    @Test
+    void monthJustEndedIsReadFromDailyBucketsUntilItSettles() {
+        Instant now = Instant.parse("2026-10-01T03:00:00Z");
+
+        assertEquals(
+            List.of(
+                segment(MONTHLY, "2026-08-01T00:00:00Z", "2026-09-01T00:00:00Z"),
+                segment(DAILY, "2026-09-01T00:00:00Z", "2026-10-01T00:00:00Z"),
+                segment(HOURLY, "2026-10-01T00:00:00Z", null)
+            ),
+            RollupPlan.plan(Instant.parse("2026-08-01T00:00:00Z"), null, now)
+        );
+    }
+
+    @Test
+    void invertedRangeHasNoSegments() {
+        assertEquals(List.of(), RollupPlan.plan(Instant.parse("2026-03-10T00:00:00Z"), Instant.parse("2026-03-01T00:00:00Z"), NOW));
+    }
+
+    private static RollupPlan.Segment segment(RollupPlan.Granularity granularity, String from, String to) {
+        return new RollupPlan.Segment(
+            granularity,
+            from == null ? null : Instant.parse(from),
+            to == null ? null : Instant.parse(to)
+        );
+    }
+}
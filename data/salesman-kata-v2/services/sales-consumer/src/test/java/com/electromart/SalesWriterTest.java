@@ -1,5 +1,8 @@
 package com.electromart;
 
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Proxy;
@@ -7,10 +10,13 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SalesWriterTest {
@@ -41,8 +47,8 @@ class SalesWriterTest {
         assertEquals(3, recorder.parameters().get(13));
         assertEquals(100.5, recorder.parameters().get(14));
         assertEquals(301.5, recorder.parameters().get(15));
-        assertEquals(Timestamp.from(Instant.parse("2026-03-13T10:15:30Z")), recorder.parameters().get(17));
-        assertEquals("trace-1", recorder.parameters().get(18));
+        assertEquals(Timestamp.from(Instant.parse("2026-03-13T10:15:30Z")), recorder.parameters().get(16));
+        assertEquals("trace-1", recorder.parameters().get(17));
         assertTrue(recorder.executed());
     }
 
@@ -61,16 +67,77 @@ class SalesWriterTest {
             }
             """);
 
-        Timestamp timestamp = (Timestamp) recorder.parameters().get(17);
+        Timestamp timestamp = (Timestamp) recorder.parameters().get(16);
         assertTrue(!timestamp.toInstant().isBefore(before));
         assertTrue(recorder.executed());
     }
 
+    @Test
+    void insertBatchBindsAllRowsIntoOneTransactionAndReportsDuplicates() throws Exception {
+        RecordingPreparedStatement recorder = new RecordingPreparedStatement();
+        recorder.batchCounts = new int[]{1, 0};
+        List<String> calls = new ArrayList<>();
+        Connection connection = connectionReturning(recorder.statement(), calls);
+
+        List<SalesWriteResult> results = SalesWriter.insertBatch(connection, records(
+            "{\"sale_id\":\"sale-1\",\"source\":\"csv\",\"total_amount\":10.0,\"sale_timestamp\":\"2026-03-13T10:15:30Z\"}",
+            "not-json",
+            "{\"sale_id\":\"sale-2\",\"source\":\"soap\",\"total_amount\":20.0,\"sale_timestamp\":\"2026-03-13T10:16:30Z\"}"
+        ));
+
+        assertEquals(2, recorder.batchedRows());
+        assertEquals(1, calls.stream().filter("prepareStatement"::equals).count());
+        assertEquals(List.of("setAutoCommit", "prepareStatement", "commit", "setAutoCommit"),
+            calls.stream().filter(name -> !"getAutoCommit".equals(name)).toList());
+        assertEquals(2, results.size());
+        assertEquals("sale-1", results.get(0).saleId());
+        assertTrue(results.get(0).inserted());
+        assertEquals("sale-2", results.get(1).saleId());
+        assertFalse(results.get(1).inserted());
+    }
+
+    @Test
+    void csvRowQuotesTextAndLeavesMissingFieldsNull() throws Exception {
+        StringBuilder csv = new StringBuilder();
+
+        SalesWriter.appendCsvRow(csv, SalesWriter.parse("""
+            {
+              "sale_id":"sale-3",
+              "source":"csv",
+              "product_name":"MacBook Pro 14\\"",
+              "city":"São Paulo",
+              "quantity":2,
+              "unit_price":10.5,
+              "total_amount":21.0,
+              "sale_timestamp":"2026-03-13T10:15:30Z"
+            }
+            """));
+
+        assertEquals(
+            "\"sale-3\",\"csv\",,\"MacBook Pro 14\"\"\",,,,,,,\"São Paulo\",,2,10.5,21.0,2026-03-13T10:15:30Z,\n",
+            csv.toString()
+        );
+    }
+
+    private static ConsumerRecords<String, String> records(String... values) {
+        TopicPartition partition = new TopicPartition("sales", 0);
+        List<ConsumerRecord<String, String>> list = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            list.add(new ConsumerRecord<>("sales", 0, i, null, values[i]));
+        }
+        return new ConsumerRecords<>(Map.of(partition, list));
+    }
+
     private Connection connectionReturning(PreparedStatement statement) {
+        return connectionReturning(statement, new ArrayList<>());
+    }
+
+    private Connection connectionReturning(PreparedStatement statement, List<String> calls) {
         return (Connection) Proxy.newProxyInstance(
             getClass().getClassLoader(),
             new Class[]{Connection.class},
             (proxy, method, args) -> {
+                calls.add(method.getName());
                 if ("prepareStatement".equals(method.getName())) {
                     return statement;
                 }
@@ -116,6 +183,8 @@ class SalesWriterTest {
     private static final class RecordingPreparedStatement {
         private final Map<Integer, Object> parameters = new HashMap<>();
         private boolean executed;
+        private int batchedRows;
+        private int[] batchCounts = new int[0];
 
         PreparedStatement statement() {
             return (PreparedStatement) Proxy.newProxyInstance(
@@ -131,6 +200,14 @@ class SalesWriterTest {
                             executed = true;
                             return 1;
                         }
+                        case "addBatch" -> {
+                            batchedRows++;
+                            return null;
+                        }
+                        case "executeBatch" -> {
+                            executed = true;
+                            return batchCounts;
+                        }
                         case "close" -> {
                             return null;
                         }
@@ -150,6 +227,10 @@ class SalesWriterTest {
             return executed;
         }
 
+        int batchedRows() {
+            return batchedRows;
+        }
+
         private Object defaultValue(Class<?> returnType) {
             if (!returnType.isPrimitive()) {
                 return null;